@@ -0,0 +1,109 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic dataset: a tenth of a user and five past, current and future bookings per item.
+ */
+public class BenchmarkDataset {
+
+    private static final String[] NAMES = {"Дрель", "Отвёртка", "Пила", "Молоток", "Лестница", "Палатка"};
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    private final long[] userIds;
+    private final long[] itemIds;
+    private final int[] itemOwners;
+
+    private BenchmarkDataset(long[] userIds, long[] itemIds, int[] itemOwners) {
+        this.userIds = userIds;
+        this.itemIds = itemIds;
+        this.itemOwners = itemOwners;
+    }
+
+    public static BenchmarkDataset generate(JdbcTemplate jdbcTemplate, int items) {
+        int users = Math.max(10, items / 10);
+        Random random = new Random(42);
+
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[]{"user" + i, "user" + i + "@bench.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", userRows);
+        long[] userIds = jdbcTemplate.queryForList("select id from users order by id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        int[] itemOwners = new int[items];
+        List<Object[]> itemRows = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemOwners[i] = i % users;
+            itemRows.add(new Object[]{
+                    NAMES[i % NAMES.length] + " " + i,
+                    "Описание вещи " + i,
+                    true,
+                    userIds[itemOwners[i]]});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id) values (?, ?, ?, ?)",
+                itemRows);
+        long[] itemIds = jdbcTemplate.queryForList("select id from items order by id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Object[]> bookingRows = new ArrayList<>(items * BOOKINGS_PER_ITEM);
+        for (int i = 0; i < items; i++) {
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = now.plusDays((j - BOOKINGS_PER_ITEM / 2) * 7L).minusDays(1);
+                int booker = (itemOwners[i] + 1 + random.nextInt(users - 1)) % users;
+                bookingRows.add(new Object[]{
+                        Timestamp.valueOf(start),
+                        Timestamp.valueOf(start.plusDays(3)),
+                        itemIds[i],
+                        userIds[booker],
+                        userIds[itemOwners[i]],
+                        statuses[random.nextInt(statuses.length)].name()});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.execute("analyze");
+        return new BenchmarkDataset(userIds, itemIds, itemOwners);
+    }
+
+    public long userId(int index) {
+        return userIds[index % userIds.length];
+    }
+
+    public int users() {
+        return userIds.length;
+    }
+
+    public long itemId(int index) {
+        return itemIds[index % itemIds.length];
+    }
+
+    public int items() {
+        return itemIds.length;
+    }
+
+    public long ownerOf(int itemIndex) {
+        return userIds[itemOwners[itemIndex % itemIds.length]];
+    }
+
+    /**
+     * Any user but the item owner.
+     */
+    public long bookerFor(int itemIndex, int seed) {
+        int owner = itemOwners[itemIndex % itemIds.length];
+        return userIds[(owner + 1 + Math.floorMod(seed, userIds.length - 1)) % userIds.length];
+    }
+
+}
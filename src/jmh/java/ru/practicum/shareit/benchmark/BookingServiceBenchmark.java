@@ -0,0 +1,71 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    private BookingService bookingService;
+    private BenchmarkDataset dataset;
+
+    @Setup
+    public void setUp(ShareItState shareIt) {
+        bookingService = shareIt.getBean(BookingService.class);
+        dataset = shareIt.getDataset();
+    }
+
+    @Benchmark
+    public BookingDto addNewBooking() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int item = random.nextInt(dataset.items());
+        // past the dataset horizon, so it never overlaps approved bookings
+        LocalDateTime start = LocalDateTime.now().plusYears(1).plusMinutes(random.nextInt(525_600));
+        return bookingService.addNewBooking(dataset.bookerFor(item, random.nextInt()), BookingFromUserDto.builder()
+                .itemId(dataset.itemId(item))
+                .start(start)
+                .end(start.plusDays(1))
+                .build());
+    }
+
+    @Benchmark
+    public List<BookingDto> getUserBookings(States states) {
+        long userId = dataset.userId(ThreadLocalRandom.current().nextInt(dataset.users()));
+        return bookingService.getUserBookings(userId, states.state);
+    }
+
+    /**
+     * States are a separate parameter, so addNewBooking does not run for each of them.
+     */
+    @State(Scope.Benchmark)
+    public static class States {
+
+        @Param
+        public BookingState state;
+
+    }
+
+}
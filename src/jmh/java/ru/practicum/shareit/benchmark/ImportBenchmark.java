@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports an owner catalogue in one call with JDBC batches of {@code batchSize}, 1 meaning row by row.
+ * Each measurement runs in its own fork, since imported items stay in H2 and the search index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(3)
+public class ImportBenchmark {
+
+    @Param({"100000"})
+    public int catalog;
+
+    private List<ItemDto> items;
+    private int owner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new ArrayList<>(catalog);
+        for (int i = 0; i < catalog; i++) {
+            items.add(ItemDto.builder()
+                    .name("Стремянка " + i)
+                    .description("Импортированная вещь " + i)
+                    .available(true)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> importItems(ImportState state) {
+        BenchmarkDataset dataset = state.getDataset();
+        return state.itemService.importItems(dataset.userId(owner++), items);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ImportState extends ShareItState {
+
+        @Param({"1", "50"})
+        public int batchSize;
+
+        private ItemService itemService;
+
+        @Override
+        protected void started() {
+            itemService = getBean(ItemService.class);
+        }
+
+        @Override
+        protected String[] arguments() {
+            return new String[]{"--logging.level.root=WARN",
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize};
+        }
+
+    }
+
+}
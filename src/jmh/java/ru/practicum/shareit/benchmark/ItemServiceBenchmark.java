@@ -0,0 +1,66 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    private ItemService itemService;
+    private BenchmarkDataset dataset;
+
+    @Setup
+    public void setUp(ShareItState shareIt) {
+        itemService = shareIt.getBean(ItemService.class);
+        dataset = shareIt.getDataset();
+    }
+
+    @Benchmark
+    public List<ItemDto> getOwnerItems() {
+        return itemService.getOwnerItems(dataset.userId(ThreadLocalRandom.current().nextInt(dataset.users())));
+    }
+
+    @Benchmark
+    public List<ItemDto> search(Query query) {
+        return itemService.search(dataset.userId(0), query.text, 0, query.size);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchFree(Query query) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return itemService.search(dataset.userId(0), query.text, start, start.plusDays(2), 0, query.size);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Query {
+
+        @Param({"дрел", "лестница 1"})
+        public String text;
+
+        @Param({"20"})
+        public int size;
+
+    }
+
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Web load test: {@code clients} clients request booking and item lists without pauses, first blocking
+ * ({@code shareit.web.async.enabled=false}), then async. The first third is warm-up.
+ * Arguments: number of clients and duration in seconds.
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec@load-test -Dload.args="5000 60"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        for (boolean async : new boolean[]{false, true}) {
+            System.out.println(run(async, clients, seconds));
+        }
+    }
+
+    private static Result run(boolean async, int clients, int seconds) throws Exception {
+        ShareItState shareIt = new ShareItState() {
+            @Override
+            protected SpringApplicationBuilder application() {
+                return super.application().web(WebApplicationType.SERVLET);
+            }
+
+            @Override
+            protected String[] arguments() {
+                // under this load every request would log a slow request warning
+                return new String[]{"--logging.level.root=WARN",
+                        "--logging.level.ru.practicum.shareit.metrics=ERROR",
+                        "--server.port=0",
+                        "--server.tomcat.max-connections=" + (clients + 100),
+                        "--shareit.web.async.enabled=" + async};
+            }
+        };
+        shareIt.items = 1000;
+        shareIt.start();
+        try {
+            String baseUrl = "http://localhost:" + shareIt.getBean(Environment.class).getProperty("local.server.port");
+            return new Load(baseUrl, shareIt.getDataset(), async ? "async" : "blocking", clients, seconds).run();
+        } finally {
+            shareIt.stop();
+        }
+    }
+
+    private static class Load {
+
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        private final String baseUrl;
+        private final BenchmarkDataset dataset;
+        private final String mode;
+        private final int clients;
+        private final long warmUpEnd;
+        private final long end;
+
+        private final long[] latencies = new long[4_000_000];
+        private final AtomicLong recorded = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        Load(String baseUrl, BenchmarkDataset dataset, String mode, int clients, int seconds) {
+            this.baseUrl = baseUrl;
+            this.dataset = dataset;
+            this.mode = mode;
+            this.clients = clients;
+            long now = System.nanoTime();
+            this.warmUpEnd = now + TimeUnit.SECONDS.toNanos(seconds) / 3;
+            this.end = now + TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        Result run() {
+            CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+            for (int i = 0; i < clients; i++) {
+                loops[i] = next();
+            }
+            CompletableFuture.allOf(loops).join();
+            int count = (int) Math.min(recorded.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double measuredSeconds = (end - warmUpEnd) / 1e9;
+            return new Result(mode, clients, count / measuredSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), count == 0 ? 0 : sorted[count - 1],
+                    rejected.get(), failed.get());
+        }
+
+        private CompletableFuture<Void> next() {
+            if (System.nanoTime() >= end) {
+                return CompletableFuture.completedFuture(null);
+            }
+            long start = System.nanoTime();
+            return client.sendAsync(randomRequest(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (start >= warmUpEnd) {
+                            record(response, error, System.nanoTime() - start);
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> next());
+        }
+
+        private void record(HttpResponse<Void> response, Throwable error, long nanos) {
+            if (error != null || response.statusCode() >= 500 && response.statusCode() != 503) {
+                failed.incrementAndGet();
+            } else if (response.statusCode() == 503) {
+                rejected.incrementAndGet();
+            } else {
+                long index = recorded.getAndIncrement();
+                if (index < latencies.length) {
+                    latencies[(int) index] = nanos;
+                }
+            }
+        }
+
+        private HttpRequest randomRequest() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long userId = dataset.userId(random.nextInt(dataset.users()));
+            String path = random.nextBoolean() ? "/bookings?state=WAITING" : "/items";
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("X-Sharer-User-Id", String.valueOf(userId))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+        }
+
+    }
+
+    private static class Result {
+
+        private final String mode;
+        private final int clients;
+        private final double throughput;
+        private final long p50;
+        private final long p99;
+        private final long max;
+        private final long rejected;
+        private final long failed;
+
+        Result(String mode, int clients, double throughput, long p50, long p99, long max, long rejected, long failed) {
+            this.mode = mode;
+            this.clients = clients;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            this.rejected = rejected;
+            this.failed = failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s clients=%d throughput=%.0f req/s p50=%d ms p99=%d ms max=%d ms 503=%d errors=%d",
+                    mode, clients, throughput, TimeUnit.NANOSECONDS.toMillis(p50), TimeUnit.NANOSECONDS.toMillis(p99),
+                    TimeUnit.NANOSECONDS.toMillis(max), rejected, failed);
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingState;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput under the dev (SQL and parameters at TRACE), default (synchronous console) and prod
+ * (asynchronous logfmt) logging profiles. The console goes to target/jmh-logging-*.log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Benchmark
+    public BookingDto addNewBooking(LoggingState state) {
+        BenchmarkDataset dataset = state.getDataset();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int item = random.nextInt(dataset.items());
+        LocalDateTime start = LocalDateTime.now().plusYears(1).plusMinutes(random.nextInt(525_600));
+        return state.bookingService.addNewBooking(dataset.bookerFor(item, random.nextInt()),
+                BookingFromUserDto.builder()
+                        .itemId(dataset.itemId(item))
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .build());
+    }
+
+    @Benchmark
+    public List<BookingDto> getUserBookings(LoggingState state) {
+        BenchmarkDataset dataset = state.getDataset();
+        long userId = dataset.userId(ThreadLocalRandom.current().nextInt(dataset.users()));
+        return state.bookingService.getUserBookings(userId, BookingState.WAITING);
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoggingState extends ShareItState {
+
+        @Param({"dev", "default", "prod"})
+        public String logging;
+
+        private PrintStream console;
+        private BookingService bookingService;
+
+        @Override
+        protected void started() {
+            bookingService = getBean(BookingService.class);
+        }
+
+        @Override
+        protected void stopped() {
+            System.out.close();
+            System.setOut(console);
+        }
+
+        @Override
+        protected SpringApplicationBuilder application() {
+            console = System.out;
+            try {
+                System.setOut(new PrintStream(new FileOutputStream("target/jmh-logging-" + logging + ".log", true), true));
+            } catch (FileNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+            SpringApplicationBuilder application = super.application();
+            return "default".equals(logging) ? application : application.profiles(logging);
+        }
+
+        @Override
+        protected String[] arguments() {
+            return new String[0];
+        }
+
+    }
+
+}
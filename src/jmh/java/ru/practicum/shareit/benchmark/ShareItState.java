@@ -0,0 +1,83 @@
+package ru.practicum.shareit.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.availability.ItemAvailabilityTimeline;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Starts the application on H2 with the test profile and loads a dataset of {@link #items} items.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+
+    @Param({"1000"})
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = application().run(arguments());
+        dataset = BenchmarkDataset.generate(context.getBean(JdbcTemplate.class), items);
+
+        // the data bypasses the services, so the search index and the timeline are filled here
+        ItemSearchIndex searchIndex = context.getBean(ItemSearchIndex.class);
+        context.getBean(ItemRepository.class).findAll().forEach(searchIndex::index);
+        context.getBean(ItemAvailabilityTimeline.class).afterSingletonsInstantiated();
+
+        SqlStatementProfiler.bind(context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics());
+        started();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SqlStatementProfiler.bind(null);
+        context.close();
+        stopped();
+    }
+
+    protected void started() {
+    }
+
+    protected void stopped() {
+    }
+
+    protected SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test");
+    }
+
+    /**
+     * Logging is muted, so the services and SQL are measured rather than console output.
+     */
+    protected String[] arguments() {
+        return new String[]{"--logging.level.root=WARN"};
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public BenchmarkDataset getDataset() {
+        return dataset;
+    }
+
+}
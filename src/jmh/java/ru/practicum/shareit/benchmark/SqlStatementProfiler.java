@@ -0,0 +1,56 @@
+package ru.practicum.shareit.benchmark;
+
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL statements prepared by Hibernate per benchmark operation.
+ * Enabled with {@code -prof ru.practicum.shareit.benchmark.SqlStatementProfiler}.
+ */
+public class SqlStatementProfiler implements InternalProfiler {
+
+    private static volatile Statistics statistics;
+
+    private Statistics measured;
+    private long before;
+
+    static void bind(Statistics statistics) {
+        SqlStatementProfiler.statistics = statistics;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Hibernate prepared statements per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        measured = statistics;
+        before = measured == null ? 0 : measured.getPrepareStatementCount();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams,
+                                                       IterationResult result) {
+        long ops = result.getMetadata().getAllOps();
+        if (measured == null || ops == 0) {
+            // the first iteration starts before @Setup, there is no context yet
+            return Collections.emptyList();
+        }
+        long statements = measured.getPrepareStatementCount() - before;
+        return List.of(new ScalarResult("sql.statements.norm", (double) statements / ops, "stmts/op",
+                AggregationPolicy.AVG));
+    }
+
+}
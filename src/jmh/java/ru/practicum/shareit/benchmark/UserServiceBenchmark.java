@@ -0,0 +1,45 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private UserService userService;
+    private BenchmarkDataset dataset;
+
+    @Setup
+    public void setUp(ShareItState shareIt) {
+        userService = shareIt.getBean(UserService.class);
+        dataset = shareIt.getDataset();
+    }
+
+    @Benchmark
+    public UserDto update() {
+        int user = ThreadLocalRandom.current().nextInt(dataset.users());
+        return userService.update(dataset.userId(user), UserDto.builder()
+                .name("user" + user + "-" + ThreadLocalRandom.current().nextInt(1000))
+                .email("user" + user + "@bench.ru")
+                .build());
+    }
+
+}
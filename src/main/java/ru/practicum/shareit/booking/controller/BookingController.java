@@ -1,15 +1,30 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFromUserDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingStatusStream;
 import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.web.EntityTags;
+import ru.practicum.shareit.web.RequestExecutor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TODO Sprint add-bookings.
@@ -20,46 +35,148 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookingService bookingService;
 
+    private final BookingStatusStream bookingStatusStream;
+
+    private final UserService userService;
+
+    private final ObjectMapper objectMapper;
+
+    private final RequestExecutor requestExecutor;
+
     @PostMapping
-    public ResponseEntity<BookingDto> add(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                          @RequestBody BookingFromUserDto bookingFromUser) {
+    public CompletableFuture<ResponseEntity<BookingDto>> add(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                             @RequestBody BookingFromUserDto bookingFromUser) {
         log.info("Received POST-request at /bookings endpoint from user id={}", userId);
-        return ResponseEntity.ok().body(bookingService.addNewBooking(userId, bookingFromUser));
+        return requestExecutor.submit(() ->
+                ResponseEntity.ok().body(bookingService.addNewBooking(userId, bookingFromUser)));
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<BookingDto> update(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                             @PathVariable long bookingId,
-                                             @RequestParam String approved) {
+    public CompletableFuture<ResponseEntity<BookingDto>> update(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                @PathVariable long bookingId,
+                                                                @RequestParam String approved) {
         log.info("Received PATCH-request at /bookings/{} endpoint from user id={}", bookingId, userId);
-        return ResponseEntity.ok().body(bookingService.updateBooking(userId, bookingId, approved));
+        return requestExecutor.submit(() ->
+                ResponseEntity.ok().body(bookingService.updateBooking(userId, bookingId, approved)));
+    }
+
+    @PatchMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<BookingBatchResultDto>>> updateAll(
+            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+            @RequestParam String approved,
+            @RequestBody List<Long> bookingIds) {
+        log.info("Received PATCH-request at /bookings/batch endpoint from user id={} for {} bookings",
+                userId, bookingIds.size());
+        return requestExecutor.submit(() ->
+                ResponseEntity.ok().body(bookingService.updateBookings(userId, bookingIds, approved)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Received GET-request at /bookings/stream endpoint from user id={}", userId);
+        return bookingStatusStream.subscribe(userId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<BookingDto> get(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                          @PathVariable long bookingId) {
+    public CompletableFuture<ResponseEntity<BookingDto>> get(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                             String ifNoneMatch,
+                                                             @PathVariable long bookingId) {
         log.info("Received GET-request at /bookings/{} endpoint from user id={}", userId, bookingId);
-        return ResponseEntity.ok().body(bookingService.getBooking(userId, bookingId));
+        return requestExecutor.submit(() -> EntityTags.conditional(ifNoneMatch,
+                bookingService.getBookingTag(userId, bookingId),
+                () -> bookingService.getBooking(userId, bookingId)));
     }
 
     @GetMapping
-    public ResponseEntity<List<BookingDto>> getUserBookings(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                            @RequestParam(defaultValue = "ALL") String state) {
+    public CompletableFuture<ResponseEntity<List<BookingDto>>> getUserBookings(
+            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("Received GET-request at /bookings endpoint from user id={} with state={}", userId, state);
         BookingState bookingState = resolveBookingState(state);
-        List<BookingDto> bookings = bookingService.getUserBookings(userId, bookingState);
-        return ResponseEntity.ok().body(bookings);
+        if (from == null && size == null && cursor == null) {
+            return requestExecutor.submit(() ->
+                    ResponseEntity.ok().body(bookingService.getUserBookings(userId, bookingState)));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        return requestExecutor.submit(() -> toPage(bookingService.getUserBookings(userId,
+                bookingState,
+                after,
+                from == null ? 0 : from,
+                pageSize), pageSize));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUserBookings(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                    @RequestParam(defaultValue = "ALL") String state) {
+        log.info("Received streaming GET-request at /bookings endpoint from user id={} with state={}", userId, state);
+        BookingState bookingState = resolveBookingState(state);
+        // the status is committed with the first line, so an unknown user is rejected before streaming starts
+        userService.getUser(userId);
+        StreamingResponseBody body = outputStream ->
+                bookingService.streamUserBookings(userId, bookingState, booking -> writeLine(outputStream, booking));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<List<BookingDto>> getItemsOwnerBookings(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                                  @RequestParam(defaultValue = "ALL") String state) {
+    public CompletableFuture<ResponseEntity<List<BookingDto>>> getItemsOwnerBookings(
+            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("Received GET-request at /bookings/owner endpoint from user id={} with state={}", userId, state);
         BookingState bookingState = resolveBookingState(state);
-        List<BookingDto> bookings = bookingService.getItemsOwnerBookings(userId, bookingState);
-        return ResponseEntity.ok().body(bookings);
+        if (from == null && size == null && cursor == null) {
+            return requestExecutor.submit(() ->
+                    ResponseEntity.ok().body(bookingService.getItemsOwnerBookings(userId, bookingState)));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        return requestExecutor.submit(() -> toPage(bookingService.getItemsOwnerBookings(userId,
+                bookingState,
+                after,
+                from == null ? 0 : from,
+                pageSize), pageSize));
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItemsOwnerBookings(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                          @RequestParam(defaultValue = "ALL") String state) {
+        log.info("Received streaming GET-request at /bookings/owner endpoint from user id={} with state={}", userId, state);
+        BookingState bookingState = resolveBookingState(state);
+        // the status is committed with the first line, so an unknown user is rejected before streaming starts
+        userService.getUser(userId);
+        StreamingResponseBody body = outputStream ->
+                bookingService.streamItemsOwnerBookings(userId, bookingState, booking -> writeLine(outputStream, booking));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private ResponseEntity<List<BookingDto>> toPage(List<BookingDto> bookings, int pageSize) {
+        if (bookings.size() < pageSize) {
+            return ResponseEntity.ok().body(bookings);
+        }
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(PageCursor.NEXT_CURSOR_HEADER, new PageCursor(last.getEnd(), last.getId()).encode())
+                .body(bookings);
+    }
+
+    private void writeLine(OutputStream outputStream, BookingDto booking) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(booking));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private BookingState resolveBookingState(String state) {
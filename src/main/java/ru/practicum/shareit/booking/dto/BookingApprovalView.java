@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking fields needed to approve or reject it, read without loading the entity.
+ */
+public interface BookingApprovalView {
+
+    long getId();
+
+    long getItemId();
+
+    long getBookerId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    BookingStatus getStatus();
+
+}
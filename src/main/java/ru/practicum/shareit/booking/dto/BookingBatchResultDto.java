@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.enums.BookingBatchResult;
+import ru.practicum.shareit.enums.BookingStatus;
+
+@Data
+@Builder
+public class BookingBatchResultDto {
+
+    private long bookingId;
+    private BookingBatchResult result;
+    private BookingStatus status;
+
+}
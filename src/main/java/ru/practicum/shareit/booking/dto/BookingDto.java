@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.dto;
 /**
  * TODO Sprint add-bookings.
  */
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.enums.BookingStatus;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingDto {
 
     private long id;
@@ -22,4 +24,13 @@ public class BookingDto {
     private UserShortDto booker;
     private BookingStatus status;
 
+    /**
+     * Constructor for JPQL {@code select new}, so booking lists are read without entities.
+     */
+    public BookingDto(long id, LocalDateTime start, LocalDateTime end, Long itemId, String itemName,
+                      Long bookerId, BookingStatus status) {
+        this(id, start, end, ItemShortDto.builder().id(itemId).name(itemName).build(),
+                UserShortDto.builder().id(bookerId).build(), status);
+    }
+
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.enums.BookingStatus;
+
+/**
+ * Booking created or decided by the owner, for the outbox and the status stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusChangedEvent {
+
+    private long bookingId;
+    private long itemId;
+    private long bookerId;
+    private long ownerId;
+    private BookingStatus status;
+
+}
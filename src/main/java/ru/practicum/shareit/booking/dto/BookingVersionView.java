@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Versions a booking representation is built from, with the participants allowed to see it.
+ */
+public interface BookingVersionView {
+
+    long getVersion();
+
+    long getItemVersion();
+
+    long getBookerId();
+
+    long getOwnerId();
+
+}
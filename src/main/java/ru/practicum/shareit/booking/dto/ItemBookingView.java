@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last or next approved booking of an item, {@code kind} is either {@code LAST} or {@code NEXT}.
+ */
+public interface ItemBookingView {
+
+    long getId();
+
+    long getItemId();
+
+    long getBookerId();
+
+    String getKind();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+}
@@ -3,7 +3,6 @@ package ru.practicum.shareit.booking.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
@@ -16,13 +15,14 @@ public interface BookingMapper {
 
     BookingDto toBookingDto(Booking booking);
 
+    @Mapping(target = "version", ignore = true)
     Booking toBooking(BookingDto bookingDto);
 
-    @Mapping(target = "id", source = "booking.id")
-    @Mapping(target = "bookerId", source = "booking.booker.id")
-    BookingForItemDto toBookingForItemDto(Booking booking);
-
     @Mapping(target = "id", ignore = true)
-    Booking toBooking(User booker, Item item, LocalDateTime start, LocalDateTime end, BookingStatus status);
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "item", source = "item")
+    @Mapping(target = "owner", source = "owner")
+    Booking toBooking(User booker, Item item, User owner, LocalDateTime start, LocalDateTime end,
+                      BookingStatus status);
 
 }
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "start_date")
@@ -33,7 +34,13 @@ public class Booking {
     @ManyToOne(fetch = FetchType.LAZY)
     private User booker;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User owner;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    @Version
+    private long version;
+
 }
@@ -1,43 +1,73 @@
 package ru.practicum.shareit.booking.repo;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findAllByBooker(User booker, Sort sort);
-
-    List<Booking> findByBookerAndStartIsBeforeAndEndIsAfter(User booker, LocalDateTime start, LocalDateTime end, Sort sort);
-
-    List<Booking> findByBookerAndEndIsBefore(User booker, LocalDateTime end, Sort sort);
-
-    List<Booking> findByBookerAndStartIsAfter(User booker, LocalDateTime start, Sort sort);
-
-    List<Booking> findByBookerAndStatusIs(User booker, BookingStatus status, Sort sort);
-
-    List<Booking> findAllByItemOwnerIs(User booker, Sort sort);
-
-    List<Booking> findByItemOwnerAndStartIsBeforeAndEndIsAfter(User booker, LocalDateTime start, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemOwnerAndEndIsBefore(User booker, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemOwnerAndStartIsAfter(User booker, LocalDateTime start, Sort sort);
-
-    List<Booking> findByItemOwnerAndStatusIs(User booker, BookingStatus status, Sort sort);
-
-    Optional<Booking> findFirst1ByItemIdIsAndStartIsBeforeAndStatusIsOrderByEndDesc(long itemId, LocalDateTime end, BookingStatus status);
-
-    Optional<Booking> findFirst1ByItemIdIsAndStartIsAfterAndStatusIsOrderByStartAsc(long itemId, LocalDateTime start, BookingStatus status);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     Optional<Booking> findFirst1ByItemIdAndBookerIdAndEndIsBefore(long itemId, long bookerId, LocalDateTime end);
 
+    boolean existsByItemIdAndStatusAndIdNotAndStartIsBeforeAndEndIsAfter(long itemId,
+                                                                        BookingStatus status,
+                                                                        long bookingId,
+                                                                        LocalDateTime end,
+                                                                        LocalDateTime start);
+
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, " +
+            "b.start as start, b.end as end, b.status as status " +
+            "from Booking b where b.id in ?1 and b.owner.id = ?2")
+    List<BookingApprovalView> findOwnedApprovalViews(Collection<Long> bookingIds, long ownerId);
+
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, " +
+            "b.start as start, b.end as end, b.status as status " +
+            "from Booking b where b.item.id in ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    List<BookingApprovalView> findApprovalViewsInPeriod(Collection<Long> itemIds,
+                                                        BookingStatus status,
+                                                        LocalDateTime start,
+                                                        LocalDateTime end);
+
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, " +
+            "b.start as start, b.end as end, b.status as status " +
+            "from Booking b where b.id > ?1 and b.end > ?2 and b.status in ?3 order by b.id")
+    List<BookingApprovalView> findBookingViewsAfter(long afterId,
+                                                    LocalDateTime now,
+                                                    Collection<BookingStatus> statuses,
+                                                    Pageable pageable);
+
+    @Query("select b.version as version, i.version as itemVersion, b.booker.id as bookerId, " +
+            "b.owner.id as ownerId from Booking b join b.item i where b.id = ?1")
+    Optional<BookingVersionView> findVersionById(long bookingId);
+
+    @Modifying
+    @Query("update Booking b set b.status = ?2, b.version = b.version + 1 where b.id in ?1")
+    int updateStatus(Collection<Long> bookingIds, BookingStatus status);
+
+    @Query(value = "select b.id as id, b.item_id as itemId, b.booker_id as bookerId, b.kind as kind," +
+            " b.start_date as startDate, b.end_date as endDate from (" +
+            " select id, item_id, booker_id, start_date, end_date, 'LAST' as kind," +
+            " row_number() over (partition by item_id order by end_date desc) as rn" +
+            " from bookings where item_id in (:itemIds) and status = 'APPROVED' and start_date < :now" +
+            " union all" +
+            " select id, item_id, booker_id, start_date, end_date, 'NEXT' as kind," +
+            " row_number() over (partition by item_id order by start_date) as rn" +
+            " from bookings where item_id in (:itemIds) and status = 'APPROVED' and start_date > :now" +
+            ") b where b.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                          @Param("now") LocalDateTime now);
+
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repo;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+
+    List<BookingDto> findUserBookings(long userId, BookingState state, PageCursor after, int from, int size);
+
+    List<BookingDto> findItemsOwnerBookings(long userId, BookingState state, PageCursor after, int from, int size);
+
+    Stream<BookingDto> streamUserBookings(long userId, BookingState state);
+
+    Stream<BookingDto> streamItemsOwnerBookings(long userId, BookingState state);
+
+}
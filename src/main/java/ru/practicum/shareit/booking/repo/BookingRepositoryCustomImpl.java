@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.repo;
+
+import org.hibernate.jpa.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listings ordered by (end, id) descending, so that a page can be continued from the last row
+ * instead of an offset and a whole result can be scrolled without loading it into memory.
+ * Rows are read straight into {@link BookingDto}, no entities reach the persistence context.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findUserBookings(long userId, BookingState state, PageCursor after, int from, int size) {
+        return createQuery(userId, false, state, after)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<BookingDto> findItemsOwnerBookings(long userId, BookingState state, PageCursor after, int from, int size) {
+        return createQuery(userId, true, state, after)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<BookingDto> streamUserBookings(long userId, BookingState state) {
+        return stream(createQuery(userId, false, state, null));
+    }
+
+    @Override
+    public Stream<BookingDto> streamItemsOwnerBookings(long userId, BookingState state) {
+        return stream(createQuery(userId, true, state, null));
+    }
+
+    private Stream<BookingDto> stream(TypedQuery<BookingDto> query) {
+        return query
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<BookingDto> createQuery(long userId, boolean owner, BookingState state, PageCursor after) {
+        StringBuilder jpql = new StringBuilder("select new ru.practicum.shareit.booking.dto.BookingDto(")
+                .append("b.id, b.start, b.end, i.id, i.name, b.booker.id, b.status) ")
+                .append("from Booking b join b.item i where ")
+                .append(owner ? "b.owner.id = :userId" : "b.booker.id = :userId");
+        switch (state) {
+            case CURRENT:
+                jpql.append(" and b.start < :now and b.end > :now");
+                break;
+            case PAST:
+                jpql.append(" and b.end < :now");
+                break;
+            case FUTURE:
+                jpql.append(" and b.start > :now");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append(" and b.status = :status");
+                break;
+        }
+        if (after != null) {
+            jpql.append(" and (b.end < :afterEnd or (b.end = :afterEnd and b.id < :afterId))");
+        }
+        jpql.append(" order by b.end desc, b.id desc");
+
+        TypedQuery<BookingDto> query = entityManager.createQuery(jpql.toString(), BookingDto.class)
+                .setParameter("userId", userId);
+        switch (state) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                query.setParameter("now", LocalDateTime.now());
+                break;
+            case WAITING:
+                query.setParameter("status", BookingStatus.WAITING);
+                break;
+            case REJECTED:
+                query.setParameter("status", BookingStatus.REJECTED);
+                break;
+        }
+        if (after != null) {
+            query.setParameter("afterEnd", after.getTimestamp())
+                    .setParameter("afterId", after.getId());
+        }
+        return query;
+    }
+
+}
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFromUserDto;
 import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -12,10 +15,25 @@ public interface BookingService {
 
     BookingDto updateBooking(long userId, long bookingId, String approved);
 
+    List<BookingBatchResultDto> updateBookings(long userId, List<Long> bookingIds, String approved);
+
     BookingDto getBooking(long userId, long bookingId);
 
+    /**
+     * Conditional GET tag of the booking and its item, built without loading entities.
+     */
+    String getBookingTag(long userId, long bookingId);
+
     List<BookingDto> getUserBookings(long userId, BookingState state); // Изменение типа аргумента
 
     List<BookingDto> getItemsOwnerBookings(long userId, BookingState state); // Изменение типа аргумента
 
+    List<BookingDto> getUserBookings(long userId, BookingState state, PageCursor after, int from, int size);
+
+    List<BookingDto> getItemsOwnerBookings(long userId, BookingState state, PageCursor after, int from, int size);
+
+    void streamUserBookings(long userId, BookingState state, Consumer<BookingDto> consumer);
+
+    void streamItemsOwnerBookings(long userId, BookingState state, Consumer<BookingDto> consumer);
+
 }
@@ -2,111 +2,155 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.enums.BookingBatchResult;
 import ru.practicum.shareit.enums.BookingState;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.enums.OutboxEventType;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
-import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.availability.ItemAvailabilityTimeline;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
 
     private final ItemService itemService;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemAvailabilityTimeline itemAvailabilityTimeline;
     private final UserService userService;
-
+    private final UserRepository userRepository;
 
     private final BookingMapper bookingMapper;
 
-    private final ItemMapper itemMapper;
-
     private final UserMapper userMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional
     public BookingDto addNewBooking(long userId, BookingFromUserDto bookingFromUser) {
-        UserDto userDto = userService.getUser(userId);
+        userService.getUser(userId);
         validateBookingDate(userId, bookingFromUser);
-        ItemDto itemDto = getValidatedBookingItem(userId, bookingFromUser);
+        ItemSnapshot item = getValidatedBookingItem(userId, bookingFromUser);
         LocalDateTime start = bookingFromUser.getStart();
         LocalDateTime end = bookingFromUser.getEnd();
+        if (hasApprovedOverlap(item.getId(), 0, start, end)) {
+            log.info("Вещь id={} уже забронирована на период {} - {}, бронирует user id={}",
+                    item.getId(), start, end, userId);
+            throw new ConflictException();
+        }
 
-        User booker = userMapper.toUser(userDto);
-        Item item = itemMapper.toItem(itemDto);
+        User booker = userRepository.getReferenceById(userId);
+        User owner = userRepository.getReferenceById(item.getOwnerId());
 
-        Booking booking = bookingMapper.toBooking(booker, item, start, end, BookingStatus.WAITING);
+        Booking booking = bookingMapper.toBooking(booker, itemRepository.getReferenceById(item.getId()), owner,
+                start, end, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
-        log.info("Добавлено новое бронирование {} от user id={}", savedBooking, userId);
+        itemAvailabilityTimeline.update(savedBooking.getId(), item.getId(), start, end, savedBooking.getStatus());
+        outboxService.append(OutboxEventType.BOOKING_CREATED, savedBooking.getId(), toStatusEvent(savedBooking));
+        log.info("Добавлено новое бронирование id={} от user id={}", savedBooking.getId(), userId);
 
-        return bookingMapper.toBookingDto(savedBooking);
+        return new BookingDto(savedBooking.getId(), start, end, item.getId(), item.getName(), userId,
+                savedBooking.getStatus());
     }
 
     private void validateBookingDate(long userId, BookingFromUserDto booking) {
         LocalDateTime start = booking.getStart();
         LocalDateTime end = booking.getEnd();
         if (start == null || end == null) {
-            log.info("У бронирования {} от user id={} не указаны даты бронирования", booking, userId);
+            log.info("У бронирования вещи id={} от user id={} не указаны даты бронирования",
+                    booking.getItemId(), userId);
             throw new ValidationException();
         }
         if (start.equals(end)) {
-            log.info("У бронирования {} от user id={} дата начала бронирования равна дате окончания", booking, userId);
+            log.info("У бронирования вещи id={} от user id={} дата начала бронирования равна дате окончания",
+                    booking.getItemId(), userId);
             throw new ValidationException();
         }
         if (start.isAfter(end)) {
-            log.info("У бронирования {} от user id={} дата начала бронирования позже даты окончания", booking, userId);
+            log.info("У бронирования вещи id={} от user id={} дата начала бронирования позже даты окончания",
+                    booking.getItemId(), userId);
             throw new ValidationException();
         }
         if (start.isBefore(LocalDateTime.now())) {
-            log.info("У бронирования {} от user id={} дата начала бронирования раньше текущей даты", booking, userId);
+            log.info("У бронирования вещи id={} от user id={} дата начала бронирования раньше текущей даты",
+                    booking.getItemId(), userId);
             throw new ValidationException();
         }
         if (end.isBefore(LocalDateTime.now())) {
-            log.info("У бронирования {} от user id={} дата окончания бронирования раньше текущей даты", booking, userId);
+            log.info("У бронирования вещи id={} от user id={} дата окончания бронирования раньше текущей даты",
+                    booking.getItemId(), userId);
             throw new ValidationException();
         }
     }
 
-    private ItemDto getValidatedBookingItem(long userId, BookingFromUserDto booking) {
+    private ItemSnapshot getValidatedBookingItem(long userId, BookingFromUserDto booking) {
         Long itemId = booking.getItemId();
         if (itemId == null) {
-            log.info("У бронирования {} от user id={} указан неверный item id", booking, userId);
+            log.info("У бронирования от user id={} не указан item id", userId);
             throw new NotFoundException();
         }
-        ItemDto item = itemService.getItem(userId, itemId);
+        ItemSnapshot item = itemService.findItem(itemId);
         if (!item.getAvailable()) {
-            log.info("В бронировании {} от user id={} указана недоступная вещь с id={}", booking, userId, booking.getItemId());
+            log.info("В бронировании от user id={} указана недоступная вещь с id={}", userId, itemId);
             throw new ValidationException();
         }
-        long ownerId = itemService.findItem(itemId).getOwner().getId();
-        if (ownerId == userId) {
-            log.info("В бронировании {} user id={} пытается забронировать свою вещь id={}", booking, userId, booking.getItemId());
+        if (item.getOwnerId() == userId) {
+            log.info("User id={} пытается забронировать свою вещь id={}", userId, itemId);
             throw new NotFoundException();
         }
-        return itemService.getItem(userId, itemId);
+        return item;
     }
 
     @Override
@@ -114,17 +158,29 @@ public class BookingServiceImpl implements BookingService {
     public BookingDto updateBooking(long userId, long bookingId, String approved) {
         Booking booking = findBooking(bookingId);
         validateBookingUpdate(userId, booking);
+        // Decisions on one item are serialized by the row lock, decisions on other items are not affected.
+        // The status is re-read under the lock, so a repeated decision sees the first one
+        itemRepository.findLockedById(booking.getItem().getId());
+        entityManager.refresh(booking);
+        boolean wasApproved = booking.getStatus().equals(BookingStatus.APPROVED);
         switch (approved) {
             case "true":
                 if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-                    log.info("Бронирование {} от user id={} уже находится в статусе {}", booking, userId, booking.getStatus());
+                    log.info("Бронирование id={} от user id={} уже находится в статусе {}", booking.getId(), userId,
+                            booking.getStatus());
                     throw new ValidationException();
                 }
+                if (hasApprovedOverlap(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd())) {
+                    log.info("Бронирование id={} пересекается с уже подтвержденным бронированием вещи id={}",
+                            booking.getId(), booking.getItem().getId());
+                    throw new ConflictException();
+                }
                 booking.setStatus(BookingStatus.APPROVED);
                 break;
             case "false":
                 if (booking.getStatus().equals(BookingStatus.REJECTED)) {
-                    log.info("Бронирование {} от user id={} уже находится в статусе {}", booking, userId, booking.getStatus());
+                    log.info("Бронирование id={} от user id={} уже находится в статусе {}", booking.getId(), userId,
+                            booking.getStatus());
                     throw new ValidationException();
                 }
                 booking.setStatus(BookingStatus.REJECTED);
@@ -132,11 +188,170 @@ public class BookingServiceImpl implements BookingService {
             default:
                 throw new RuntimeException();
         }
-        Booking savedBooking = bookingRepository.save(booking);
-        log.info("Изменено бронирование {} от user id={}", savedBooking, userId);
+        Booking savedBooking = bookingRepository.saveAndFlush(booking);
+        if (wasApproved || savedBooking.getStatus().equals(BookingStatus.APPROVED)) {
+            itemBookingSummaryService.refresh(List.of(savedBooking.getItem().getId()));
+        }
+        itemAvailabilityTimeline.update(savedBooking.getId(), savedBooking.getItem().getId(),
+                savedBooking.getStart(), savedBooking.getEnd(), savedBooking.getStatus());
+        publishStatusChange(toStatusEvent(savedBooking));
+        log.info("Изменено бронирование id={} от user id={}, статус {}",
+                savedBooking.getId(), userId, savedBooking.getStatus());
         return bookingMapper.toBookingDto(savedBooking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> updateBookings(long userId, List<Long> bookingIds, String approved) {
+        userService.getUser(userId);
+        BookingStatus status = resolveApproval(approved);
+        Set<Long> ids = validateBatch(userId, bookingIds);
+
+        // The items are locked before the statuses are read, so a concurrent decision is seen, not overwritten
+        itemRepository.findAllLockedByBookingIds(ids, userId);
+        Map<Long, BookingApprovalView> owned = bookingRepository.findOwnedApprovalViews(ids, userId).stream()
+                .collect(Collectors.toMap(BookingApprovalView::getId, Function.identity()));
+        Map<Long, List<BookingApprovalView>> approvedByItem = status == BookingStatus.APPROVED
+                ? findApprovedBookings(owned.values())
+                : Map.of();
+
+        List<Long> updatedIds = new ArrayList<>();
+        Set<Long> summaryItemIds = new TreeSet<>();
+        List<BookingBatchResultDto> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BookingApprovalView booking = owned.get(id);
+            if (booking == null) {
+                results.add(toBatchResult(id, BookingBatchResult.NOT_FOUND, null));
+                continue;
+            }
+            if (booking.getStatus() == status) {
+                results.add(toBatchResult(id, BookingBatchResult.UNCHANGED, status));
+                continue;
+            }
+            if (status == BookingStatus.APPROVED) {
+                // Bookings approved earlier in this batch are added here too, so overlaps inside the batch conflict
+                List<BookingApprovalView> approvedOfItem = approvedByItem.get(booking.getItemId());
+                if (overlapsAny(booking, approvedOfItem)) {
+                    log.info("Бронирование id={} пересекается с уже подтвержденным бронированием вещи id={}",
+                            id, booking.getItemId());
+                    results.add(toBatchResult(id, BookingBatchResult.CONFLICT, booking.getStatus()));
+                    continue;
+                }
+                approvedOfItem.add(booking);
+            }
+            if (status == BookingStatus.APPROVED || booking.getStatus() == BookingStatus.APPROVED) {
+                summaryItemIds.add(booking.getItemId());
+            }
+            updatedIds.add(id);
+            results.add(toBatchResult(id, BookingBatchResult.UPDATED, status));
+        }
+        if (!updatedIds.isEmpty()) {
+            bookingRepository.updateStatus(updatedIds, status);
+            updatedIds.stream()
+                    .map(owned::get)
+                    .forEach(booking -> {
+                        itemAvailabilityTimeline.update(booking.getId(), booking.getItemId(),
+                                booking.getStart(), booking.getEnd(), status);
+                        publishStatusChange(BookingStatusChangedEvent.builder()
+                                .bookingId(booking.getId())
+                                .itemId(booking.getItemId())
+                                .bookerId(booking.getBookerId())
+                                .ownerId(userId)
+                                .status(status)
+                                .build());
+                    });
+        }
+        if (!summaryItemIds.isEmpty()) {
+            itemBookingSummaryService.refresh(summaryItemIds);
+        }
+        log.info("User id={} изменил статус {} бронирований из {} на {}", userId, updatedIds.size(), ids.size(), status);
+        return results;
+    }
+
+    private BookingStatusChangedEvent toStatusEvent(Booking booking) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getOwner().getId())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    private void publishStatusChange(BookingStatusChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        outboxService.append(OutboxEventType.BOOKING_STATUS_CHANGED, event.getBookingId(), event);
+    }
+
+    private BookingStatus resolveApproval(String approved) {
+        switch (approved) {
+            case "true":
+                return BookingStatus.APPROVED;
+            case "false":
+                return BookingStatus.REJECTED;
+            default:
+                throw new ValidationException();
+        }
+    }
+
+    private Set<Long> validateBatch(long userId, List<Long> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty() || bookingIds.size() > MAX_BATCH_SIZE
+                || bookingIds.stream().anyMatch(Objects::isNull)) {
+            log.info("User id={} передал неверный список бронирований для изменения статуса", userId);
+            throw new ValidationException();
+        }
+        return new LinkedHashSet<>(bookingIds);
+    }
+
+    /**
+     * Approved bookings of the items to approve within the period spanned by the batch. The items are locked.
+     */
+    private Map<Long, List<BookingApprovalView>> findApprovedBookings(Iterable<BookingApprovalView> bookings) {
+        Set<Long> itemIds = new TreeSet<>();
+        LocalDateTime start = LocalDateTime.MAX;
+        LocalDateTime end = LocalDateTime.MIN;
+        for (BookingApprovalView booking : bookings) {
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                continue;
+            }
+            itemIds.add(booking.getItemId());
+            start = booking.getStart().isBefore(start) ? booking.getStart() : start;
+            end = booking.getEnd().isAfter(end) ? booking.getEnd() : end;
+        }
+        Map<Long, List<BookingApprovalView>> approvedByItem = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return approvedByItem;
+        }
+        itemIds.forEach(itemId -> approvedByItem.put(itemId, new ArrayList<>()));
+        bookingRepository.findApprovalViewsInPeriod(itemIds, BookingStatus.APPROVED, start, end)
+                .forEach(booking -> approvedByItem.get(booking.getItemId()).add(booking));
+        return approvedByItem;
+    }
+
+    private boolean overlapsAny(BookingApprovalView booking, List<BookingApprovalView> approved) {
+        return approved.stream()
+                .anyMatch(other -> other.getId() != booking.getId()
+                        && other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()));
+    }
+
+    private BookingBatchResultDto toBatchResult(long bookingId, BookingBatchResult result, BookingStatus status) {
+        return BookingBatchResultDto.builder()
+                .bookingId(bookingId)
+                .result(result)
+                .status(status)
+                .build();
+    }
+
+    private boolean hasApprovedOverlap(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsByItemIdAndStatusAndIdNotAndStartIsBeforeAndEndIsAfter(
+                itemId,
+                BookingStatus.APPROVED,
+                bookingId,
+                end,
+                start);
+    }
+
     private Booking findBooking(long bookingId) {
         if (bookingId == 0) {
             throw new ValidationException();
@@ -150,11 +365,10 @@ public class BookingServiceImpl implements BookingService {
 
     private void validateBookingUpdate(long userId, Booking booking) {
         UserDto userDto = userService.getUser(userId);
-        if (userDto.getId() != booking.getItem().getOwner().getId()) {
-            log.info("У позиции {} в бронировании {} указан другой владелец {}, обращается user с id={}",
-                    booking.getItem(),
-                    booking,
-                    booking.getItem().getOwner(),
+        if (userDto.getId() != booking.getOwner().getId()) {
+            log.info("У бронирования id={} указан другой владелец id={}, обращается user с id={}",
+                    booking.getId(),
+                    booking.getOwner().getId(),
                     userDto.getId());
             throw new NotFoundException();
         }
@@ -165,12 +379,12 @@ public class BookingServiceImpl implements BookingService {
     public BookingDto getBooking(long userId, long bookingId) {
         User user = userMapper.toUser(userService.getUser(userId));
         Booking booking = findBooking(bookingId);
-        if (!(user.equals(booking.getBooker()) || user.equals(booking.getItem().getOwner()))) {
+        if (!(user.equals(booking.getBooker()) || user.equals(booking.getOwner()))) {
             log.info("Различаются user id={}, кто ищет бронирование, и автор бронирования id={}" +
                             "или владелец вещи id={}",
                     user.getId(),
                     booking.getBooker().getId(),
-                    booking.getItem().getOwner().getId());
+                    booking.getOwner().getId());
             throw new NotFoundException();
         }
         return bookingMapper.toBookingDto(booking);
@@ -178,94 +392,70 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getUserBookings(long userId, BookingState state) {
-        User user = userMapper.toUser(userService.getUser(userId));
-        List<Booking> bookings = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findAllByBooker(user, Sort.by("end").descending());
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBookerAndStartIsBeforeAndEndIsAfter(
-                        user,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerAndEndIsBefore(
-                        user,
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerAndStartIsAfter(
-                        user,
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerAndStatusIs(
-                        user,
-                        BookingStatus.WAITING,
-                        Sort.by("end").descending());
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerAndStatusIs(
-                        user,
-                        BookingStatus.REJECTED,
-                        Sort.by("end").descending());
-                break;
+    public String getBookingTag(long userId, long bookingId) {
+        userService.getUser(userId);
+        if (bookingId == 0) {
+            throw new ValidationException();
+        }
+        BookingVersionView version = bookingRepository.findVersionById(bookingId).orElseThrow(NotFoundException::new);
+        if (version.getBookerId() != userId && version.getOwnerId() != userId) {
+            log.info("User id={} не автор бронирования id={} и не владелец вещи", userId, bookingId);
+            throw new NotFoundException();
         }
-        return bookings.stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return version.getVersion() + "-" + version.getItemVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> getUserBookings(long userId, BookingState state) {
+        return getUserBookings(userId, state, null, 0, Integer.MAX_VALUE);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookingDto> getItemsOwnerBookings(long userId, BookingState state) {
-        User user = userMapper.toUser(userService.getUser(userId));
-        List<Booking> bookings = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findAllByItemOwnerIs(user, Sort.by("end").descending());
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByItemOwnerAndStartIsBeforeAndEndIsAfter(
-                        user,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItemOwnerAndEndIsBefore(
-                        user,
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItemOwnerAndStartIsAfter(
-                        user,
-                        LocalDateTime.now(),
-                        Sort.by("end").descending());
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItemOwnerAndStatusIs(
-                        user,
-                        BookingStatus.WAITING,
-                        Sort.by("end").descending());
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItemOwnerAndStatusIs(
-                        user,
-                        BookingStatus.REJECTED,
-                        Sort.by("end").descending());
-                break;
+        return getItemsOwnerBookings(userId, state, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> getUserBookings(long userId, BookingState state, PageCursor after, int from, int size) {
+        userService.getUser(userId);
+        validatePage(from, size);
+        return bookingRepository.findUserBookings(userId, state, after, from, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> getItemsOwnerBookings(long userId, BookingState state, PageCursor after, int from, int size) {
+        userService.getUser(userId);
+        validatePage(from, size);
+        return bookingRepository.findItemsOwnerBookings(userId, state, after, from, size);
+    }
+
+    private void validatePage(int from, int size) {
+        if (from < 0 || size < 1) {
+            log.info("Указаны неверные параметры страницы from={}, size={}", from, size);
+            throw new ValidationException();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUserBookings(long userId, BookingState state, Consumer<BookingDto> consumer) {
+        userService.getUser(userId);
+        try (Stream<BookingDto> bookings = bookingRepository.streamUserBookings(userId, state)) {
+            bookings.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamItemsOwnerBookings(long userId, BookingState state, Consumer<BookingDto> consumer) {
+        userService.getUser(userId);
+        try (Stream<BookingDto> bookings = bookingRepository.streamItemsOwnerBookings(userId, state)) {
+            bookings.forEach(consumer);
         }
-        return bookings.stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingStatusChangedEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes booking decisions to the booker and the owner over server-sent events. Idle subscribers hold
+ * no thread; a subscriber whose queue overflows is disconnected and re-reads its bookings on reconnect.
+ */
+@Slf4j
+@Component
+public class BookingStatusStream implements DisposableBean {
+
+    static final String EVENT_NAME = "booking-status";
+
+    private final UserService userService;
+    private final long timeoutMs;
+    private final int queueCapacity;
+    private final int maxSubscribersPerUser;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    private final Map<Long, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public BookingStatusStream(UserService userService,
+                               @Value("${shareit.bookings.stream.timeout-ms:1800000}") long timeoutMs,
+                               @Value("${shareit.bookings.stream.queue-capacity:32}") int queueCapacity,
+                               @Value("${shareit.bookings.stream.max-subscribers-per-user:4}") int maxSubscribersPerUser,
+                               @Value("${shareit.bookings.stream.threads:2}") int threads) {
+        this.userService = userService;
+        this.timeoutMs = timeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("booking-stream-");
+        executor.initialize();
+    }
+
+    public SseEmitter subscribe(long userId) {
+        userService.getUser(userId);
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeoutMs));
+        Deque<Subscriber> userSubscribers = subscribers.compute(userId, (id, current) -> {
+            Deque<Subscriber> deque = current == null ? new ConcurrentLinkedDeque<>() : current;
+            deque.add(subscriber);
+            return deque;
+        });
+        while (userSubscribers.size() > maxSubscribersPerUser) {
+            Subscriber oldest = userSubscribers.pollFirst();
+            if (oldest != null) {
+                log.info("У user id={} слишком много подписок на бронирования, старейшая закрыта", userId);
+                oldest.close();
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        publish(event.getBookerId(), event);
+        if (event.getOwnerId() != event.getBookerId()) {
+            publish(event.getOwnerId(), event);
+        }
+    }
+
+    /**
+     * Keeps intermediaries from dropping idle connections and finds clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${shareit.bookings.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(deque -> deque.forEach(subscriber ->
+                subscriber.offer(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    int subscriberCount(long userId) {
+        Deque<Subscriber> deque = subscribers.get(userId);
+        return deque == null ? 0 : deque.size();
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.values().forEach(deque -> deque.forEach(Subscriber::close));
+        executor.shutdown();
+    }
+
+    private void publish(long userId, BookingStatusChangedEvent event) {
+        Deque<Subscriber> deque = subscribers.get(userId);
+        if (deque == null) {
+            return;
+        }
+        deque.forEach(subscriber -> subscriber.offer(SseEmitter.event()
+                .name(EVENT_NAME)
+                .data(event, MediaType.APPLICATION_JSON)));
+    }
+
+    private final class Subscriber {
+
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > queueCapacity) {
+                log.info("Подписчик user id={} не успевает читать события бронирований и отключен", userId);
+                close();
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.computeIfPresent(userId, (id, deque) -> {
+                deque.remove(this);
+                return deque.isEmpty() ? null : deque;
+            });
+            pending.clear();
+            emitter.complete();
+        }
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes {@code readOnly = true} transactions to the replica unless the user is in the read-your-writes window.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    public ReadOnlyRoutingDataSource(ReadYourWritesWindow readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWritesWindow.recordWriteOnCommit();
+            return Target.PRIMARY;
+        }
+        return readYourWritesWindow.isPinnedToPrimary() ? Target.PRIMARY : Target.REPLICA;
+    }
+
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Keeps a user who has just written on the primary for {@code shareit.datasource.read-your-writes-ms}.
+ * Recent writers are known to this node only, so with several nodes routing must be sticky per user.
+ */
+@Component
+public class ReadYourWritesWindow implements TaskDecorator {
+
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(@Value("${shareit.datasource.read-your-writes-ms:5000}") long windowMs) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+    }
+
+    public void bind(Long userId) {
+        if (userId == null) {
+            currentUser.remove();
+        } else {
+            currentUser.set(userId);
+        }
+    }
+
+    public void clear() {
+        currentUser.remove();
+    }
+
+    /**
+     * Reopens the window of the current user when the writing transaction commits.
+     */
+    public void recordWriteOnCommit() {
+        Long userId = currentUser.get();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // before the commit, so a concurrent read of the same user never lands in the gap
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean isPinnedToPrimary() {
+        Long userId = currentUser.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Long userId = currentUser.get();
+        return () -> {
+            Long previous = currentUser.get();
+            bind(userId);
+            try {
+                runnable.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+}
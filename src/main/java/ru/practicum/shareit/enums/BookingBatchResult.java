@@ -0,0 +1,10 @@
+package ru.practicum.shareit.enums;
+
+public enum BookingBatchResult {
+
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND,
+    CONFLICT
+
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outbox event types and the aggregate whose events are delivered in order.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OutboxEventType {
+
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_STATUS_CHANGED("BOOKING"),
+    COMMENT_ADDED("ITEM");
+
+    private final String aggregateType;
+
+}
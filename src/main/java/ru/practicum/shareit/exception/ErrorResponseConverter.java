@@ -0,0 +1,42 @@
+package ru.practicum.shareit.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes errors for NDJSON clients too: one JSON object on a line is valid NDJSON.
+ */
+@Component
+public class ErrorResponseConverter extends MappingJackson2HttpMessageConverter {
+
+    public ErrorResponseConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+        setSupportedMediaTypes(List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON));
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type == ErrorResponse.class && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == ErrorResponse.class && super.canWrite(clazz, mediaType);
+    }
+
+}
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process timeline of waiting and approved bookings per item. Each change replaces an immutable
+ * snapshot, so readers do not lock. Ended bookings are neither loaded nor kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityTimeline implements SmartInitializingSingleton {
+
+    private static final int WARM_UP_BATCH = 1000;
+    private static final List<BookingStatus> BUSY_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = 0;
+        long loaded = 0;
+        List<BookingApprovalView> batch;
+        do {
+            batch = bookingRepository.findBookingViewsAfter(lastId, now, BUSY_STATUSES,
+                    PageRequest.of(0, WARM_UP_BATCH));
+            for (BookingApprovalView booking : batch) {
+                apply(booking.getId(), booking.getItemId(),
+                        new Interval(booking.getStart(), booking.getEnd(), booking.getStatus()));
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                loaded += batch.size();
+            }
+        } while (batch.size() == WARM_UP_BATCH);
+        log.info("Календарь занятости построен, загружено бронирований: {}", loaded);
+    }
+
+    /**
+     * Records the booking status once the current transaction commits, or at once outside a transaction.
+     */
+    public void update(long bookingId, long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Interval interval = new Interval(start, end, status);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(bookingId, itemId, interval);
+                }
+            });
+        } else {
+            apply(bookingId, itemId, interval);
+        }
+    }
+
+    /**
+     * Free intervals of the item within {@code [from, to)}, the past is never free.
+     */
+    public List<AvailabilityIntervalDto> getFreeIntervals(long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = from.isBefore(now) ? now : from;
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        if (!to.isAfter(cursor)) {
+            return free;
+        }
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            Map.Entry<LocalDateTime, LocalDateTime> covering = timeline.busy.floorEntry(cursor);
+            if (covering != null && covering.getValue().isAfter(cursor)) {
+                cursor = covering.getValue();
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> busy = timeline.busy.subMap(cursor, false, to, false);
+            for (Map.Entry<LocalDateTime, LocalDateTime> period : busy.entrySet()) {
+                free.add(toDto(cursor, period.getKey()));
+                cursor = period.getValue();
+            }
+        }
+        if (to.isAfter(cursor)) {
+            free.add(toDto(cursor, to));
+        }
+        return free;
+    }
+
+    /**
+     * Whether no waiting or approved booking of the item overlaps {@code [start, end)}.
+     */
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return true;
+        }
+        // busy periods are disjoint, so the last one starting before the end reaches furthest
+        Map.Entry<LocalDateTime, LocalDateTime> latest = timeline.busy.lowerEntry(end);
+        return latest == null || !latest.getValue().isAfter(start);
+    }
+
+    private void apply(long bookingId, long itemId, Interval interval) {
+        timelines.compute(itemId, (id, previous) -> {
+            Map<Long, Interval> bookings = previous == null ? new HashMap<>() : new HashMap<>(previous.bookings);
+            if (interval.status == BookingStatus.WAITING) {
+                // a decision committed right after the booking itself may be applied first
+                bookings.putIfAbsent(bookingId, interval);
+            } else {
+                bookings.put(bookingId, interval);
+            }
+            ItemTimeline timeline = new ItemTimeline(bookings, LocalDateTime.now());
+            return timeline.bookings.isEmpty() ? null : timeline;
+        });
+    }
+
+    private static AvailabilityIntervalDto toDto(LocalDateTime start, LocalDateTime end) {
+        return AvailabilityIntervalDto.builder()
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private static final class Interval {
+
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final BookingStatus status;
+
+        private Interval(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+
+        private boolean isBusy() {
+            return BUSY_STATUSES.contains(status);
+        }
+
+    }
+
+    private static final class ItemTimeline {
+
+        /** Bookings that have not ended, rejected ones included. */
+        private final Map<Long, Interval> bookings;
+        /** Busy periods from start to end, disjoint and not touching. */
+        private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        private ItemTimeline(Map<Long, Interval> bookings, LocalDateTime now) {
+            bookings.values().removeIf(interval -> !interval.end.isAfter(now));
+            this.bookings = bookings;
+            List<Interval> intervals = bookings.values().stream()
+                    .filter(Interval::isBusy)
+                    .sorted(Comparator.comparing(interval -> interval.start))
+                    .collect(Collectors.toList());
+            LocalDateTime start = null;
+            LocalDateTime end = null;
+            for (Interval interval : intervals) {
+                if (end != null && !interval.start.isAfter(end)) {
+                    end = interval.end.isAfter(end) ? interval.end : end;
+                    continue;
+                }
+                if (start != null) {
+                    busy.put(start, end);
+                }
+                start = interval.start;
+                end = interval.end;
+            }
+            if (start != null) {
+                busy.put(start, end);
+            }
+        }
+
+    }
+
+}
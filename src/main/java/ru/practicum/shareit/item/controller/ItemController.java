@@ -2,13 +2,20 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.web.EntityTags;
+import ru.practicum.shareit.web.RequestExecutor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -18,47 +25,80 @@ public class ItemController {
 
     private final ItemService itemService;
 
+    private final RequestExecutor requestExecutor;
+
     @PostMapping
-    public ResponseEntity<ItemDto> add(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                       @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<ItemDto>> add(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                          @RequestBody ItemDto itemDto) {
         log.info("Received POST-request at /items endpoint from user id={}", userId);
-        return ResponseEntity.ok().body(itemService.addNewItem(userId, itemDto));
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemService.addNewItem(userId, itemDto)));
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<ItemDto>>> importItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                        @RequestBody List<ItemDto> items) {
+        log.info("Received POST-request at /items/batch endpoint from user id={} with {} items", userId, items.size());
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemService.importItems(userId, items)));
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<ItemDto> update(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                          @PathVariable long itemId,
-                                          @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<ItemDto>> update(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                             @PathVariable long itemId,
+                                                             @RequestBody ItemDto itemDto) {
         log.info("Received PATCH-request at /items/{} endpoint from user id={}", itemId, userId);
-        return ResponseEntity.ok().body(itemService.updateItem(userId, itemId, itemDto));
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemService.updateItem(userId, itemId, itemDto)));
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<ItemDto> get(@RequestHeader("X-Sharer-User-Id") long userId,
-                                       @PathVariable long itemId) {
+    public CompletableFuture<ResponseEntity<ItemDto>> get(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                          String ifNoneMatch,
+                                                          @PathVariable long itemId) {
         log.info("Received GET-request at /items/{} endpoint from user id={}", itemId, userId);
-        return ResponseEntity.ok().body(itemService.getItem(userId, itemId));
+        return requestExecutor.submit(() -> EntityTags.conditional(ifNoneMatch,
+                itemService.getItemTag(userId, itemId),
+                () -> itemService.getItem(userId, itemId)));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<AvailabilityIntervalDto>> getAvailability(
+            @PathVariable long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received GET-request at /items/{}/availability?from={}&to={} endpoint", itemId, from, to);
+        // answered from memory, so it stays on the request thread instead of queueing behind database work
+        return ResponseEntity.ok().body(itemService.getAvailability(itemId, from, to));
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getAll(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public CompletableFuture<ResponseEntity<List<ItemDto>>> getAll(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Received GET-request at /items endpoint from user id={}", userId);
-        return ResponseEntity.ok().body(itemService.getOwnerItems(userId));
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemService.getOwnerItems(userId)));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> search(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestParam String text) {
-        log.info("Received GET-request at /items/search?text={} endpoint from user id={}", text, userId);
-        return ResponseEntity.ok().body(itemService.search(userId, text));
+    public CompletableFuture<ResponseEntity<List<ItemDto>>> search(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                   @RequestParam String text,
+                                                                   @RequestParam(required = false)
+                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                                   LocalDateTime start,
+                                                                   @RequestParam(required = false)
+                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                                   LocalDateTime end,
+                                                                   @RequestParam(defaultValue = "0") int from,
+                                                                   @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int size) {
+        log.info("Received GET-request at /items/search?text={}&start={}&end={} endpoint from user id={}",
+                text, start, end, userId);
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemService.search(userId, text, start, end, from, size)));
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<CommentDto> addComment(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                 @PathVariable long itemId,
-                                                 @RequestBody CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<CommentDto>> addComment(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                    @PathVariable long itemId,
+                                                                    @RequestBody CommentDto commentDto) {
         log.info("Received POST-request at /items/{}/comment endpoint from user id={}", itemId, userId);
-        return ResponseEntity.ok().body(itemService.addComment(userId, itemId, commentDto));
+        return requestExecutor.submit(() ->
+                ResponseEntity.ok().body(itemService.addComment(userId, itemId, commentDto)));
     }
 
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+/**
+ * Immutable copy of the item fields kept in the "items" cache.
+ */
+@Value
+public class ItemSnapshot {
+
+    Long id;
+    String name;
+    String description;
+    Boolean available;
+    Long ownerId;
+    Long requestId;
+
+}
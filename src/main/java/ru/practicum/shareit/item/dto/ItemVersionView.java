@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Versions an item representation is built from, read without loading the item or its comments.
+ */
+public interface ItemVersionView {
+
+    long getVersion();
+
+    long getOwnerId();
+
+    long getCommentCount();
+
+    /**
+     * Sum of comment and comment author versions: grows with every edit of a comment or its author's name.
+     */
+    long getCommentVersions();
+
+}
@@ -11,6 +11,7 @@ public interface CommentMapper {
     @Mapping(target = "authorName", source = "comment.author.name")
     CommentDto toCommentDto(Comment comment);
 
+    @Mapping(target = "version", ignore = true)
     Comment toComment(CommentDto commentDto);
 
 }
@@ -1,14 +1,21 @@
 package ru.practicum.shareit.item.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
 import ru.practicum.shareit.item.model.Item;
 
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
 
+    @Mapping(target = "requestId", source = "request.id")
     ItemDto toItemDto(Item item);
 
+    ItemDto toItemDto(ItemSnapshot item);
+
+    @Mapping(target = "request", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Item toItem(ItemDto itemDto);
 
 }
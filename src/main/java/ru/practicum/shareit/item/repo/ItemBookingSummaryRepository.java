@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repo;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    /**
+     * Summaries whose next booking has started, found by the {@code next_start_date} index.
+     */
+    @Query("select s.itemId from ItemBookingSummary s where s.nextStart <= ?2 and s.itemId > ?1 order by s.itemId")
+    List<Long> findStaleItemIds(long afterId, LocalDateTime now, Pageable pageable);
+
+}
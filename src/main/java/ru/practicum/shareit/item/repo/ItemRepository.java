@@ -1,20 +1,58 @@
 package ru.practicum.shareit.item.repo;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
-    List<Item> findAllByOwnerId(long userId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available) " +
+            "from Item i where i.owner.id = ?1 order by i.id")
+    List<ItemDto> findOwnerItemDtos(long userId);
 
-    @Query(" select i from Item i " +
-            "where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available) " +
+            "from Item i where i.id in ?1 and i.available = true")
+    List<ItemDto> findAvailableItemDtos(Collection<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i where i.request.id in ?1 order by i.id")
+    List<ItemDto> findRequestAnswerDtos(Collection<Long> requestIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemSnapshot(i.id, i.name, i.description, i.available, " +
+            "i.owner.id, i.request.id) from Item i where i.id = ?1")
+    Optional<ItemSnapshot> findSnapshotById(long itemId);
+
+    @Query("select i.version as version, i.owner.id as ownerId, count(c.id) as commentCount, " +
+            "coalesce(sum(c.version + a.version), 0) as commentVersions " +
+            "from Item i left join Comment c on c.item.id = i.id left join c.author a " +
+            "where i.id = ?1 group by i.id, i.version, i.owner.id")
+    Optional<ItemVersionView> findVersionById(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findLockedById(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in ?1 order by i.id")
+    List<Item> findAllLockedById(Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in " +
+            "(select b.item.id from Booking b where b.id in ?1 and b.owner.id = ?2) order by i.id")
+    List<Item> findAllLockedByBookingIds(Collection<Long> bookingIds, long ownerId);
+
+    List<Item> findAllByIdGreaterThanOrderById(long id, Pageable pageable);
 
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repo;
+
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    List<ItemDto> search(String text, int from, int size);
+
+    List<ItemDto> searchFree(String text,
+                             LocalDateTime start,
+                             LocalDateTime end,
+                             Collection<BookingStatus> busyStatuses,
+                             int from,
+                             int size);
+
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.repo;
+
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Text search over available items. On PostgreSQL both substring predicates are served by the
+ * trigram indexes on {@code upper(name)} and {@code upper(description)}; the offset is applied by the query.
+ */
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        return createQuery(text, false)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<ItemDto> searchFree(String text,
+                                    LocalDateTime start,
+                                    LocalDateTime end,
+                                    Collection<BookingStatus> busyStatuses,
+                                    int from,
+                                    int size) {
+        return createQuery(text, true)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("busyStatuses", busyStatuses)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private TypedQuery<ItemDto> createQuery(String text, boolean free) {
+        StringBuilder jpql = new StringBuilder("select new ru.practicum.shareit.item.dto.ItemDto(")
+                .append("i.id, i.name, i.description, i.available) ")
+                .append("from Item i ")
+                .append("where i.available = true and (upper(i.name) like upper(concat('%', :text, '%')) ")
+                .append(" or upper(i.description) like upper(concat('%', :text, '%')))");
+        if (free) {
+            // anti-join by idx_bookings_item_status_start for each item the text indexes found
+            jpql.append(" and not exists (select b.id from Booking b where b.item.id = i.id")
+                    .append(" and b.status in :busyStatuses and b.start < :end and b.end > :start)");
+        }
+        jpql.append(" order by case when upper(i.name) like upper(concat(:text, '%')) then 0")
+                .append(" when upper(i.name) like upper(concat('%', :text, '%')) then 1 else 2 end, i.id");
+        return entityManager.createQuery(jpql.toString(), ItemDto.class)
+                .setParameter("text", text);
+    }
+
+}
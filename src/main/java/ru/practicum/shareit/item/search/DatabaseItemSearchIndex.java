@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Searches the items table, by trigram indexes on PostgreSQL.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearchIndex implements ItemSearchIndex {
+
+    private static final List<BookingStatus> BUSY_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void index(Item item) {
+        // the database keeps its trigram indexes up to date with the row itself
+    }
+
+    @Override
+    public List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        return start == null
+                ? itemRepository.search(text, from, size)
+                : itemRepository.searchFree(text, start, end, BUSY_STATUSES, from, size);
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchIndex {
+
+    void index(Item item);
+
+    /**
+     * Available items matching the text. With {@code start} and {@code end}, only items free in that period.
+     */
+    List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+}
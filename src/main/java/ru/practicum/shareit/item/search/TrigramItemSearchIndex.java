@@ -0,0 +1,205 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.availability.ItemAvailabilityTimeline;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process trigram index of item names and descriptions, for a single node only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "memory")
+public class TrigramItemSearchIndex implements ItemSearchIndex, SmartInitializingSingleton {
+
+    private static final int GRAM = 3;
+    private static final String PADDING = "\u0001\u0001";
+    private static final int WARM_UP_BATCH = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemAvailabilityTimeline itemAvailabilityTimeline;
+
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findAllByIdGreaterThanOrderById(lastId, PageRequest.of(0, WARM_UP_BATCH));
+            batch.forEach(this::apply);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == WARM_UP_BATCH);
+        log.info("Поисковый индекс построен, проиндексировано вещей: {}", items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        IndexedItem indexedItem = new IndexedItem(item);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(indexedItem);
+                }
+            });
+        } else {
+            apply(indexedItem);
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        String query = text.toLowerCase();
+        List<Long> ids = findCandidates(query).stream()
+                .map(items::get)
+                .filter(item -> item != null && item.matches(query))
+                .filter(item -> start == null || itemAvailabilityTimeline.isFree(item.getId(), start, end))
+                .sorted(Comparator.comparingInt((IndexedItem item) -> item.rank(query))
+                        .reversed()
+                        .thenComparingLong(IndexedItem::getId))
+                .skip(from)
+                .limit(size)
+                .map(IndexedItem::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ItemDto> found = itemRepository.findAvailableItemDtos(ids).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Collection<Long> findCandidates(String query) {
+        if (query.length() < GRAM) {
+            Set<Long> candidates = new HashSet<>();
+            postings.subMap(query, query + Character.MAX_VALUE).values().forEach(candidates::addAll);
+            return candidates;
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query, false)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        return candidates;
+    }
+
+    private void apply(Item item) {
+        apply(new IndexedItem(item));
+    }
+
+    /**
+     * Writers are serialized, since skip-list compute functions may run more than once. Readers do not lock.
+     */
+    private synchronized void apply(IndexedItem item) {
+        items.compute(item.getId(), (id, previous) -> {
+            Set<String> grams = item.grams();
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    if (!grams.contains(gram)) {
+                        postings.computeIfPresent(gram, (key, ids) -> {
+                            ids.remove(id);
+                            return ids.isEmpty() ? null : ids;
+                        });
+                    }
+                }
+            }
+            for (String gram : grams) {
+                postings.compute(gram, (key, ids) -> {
+                    Set<Long> posting = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                    posting.add(id);
+                    return posting;
+                });
+            }
+            return item;
+        });
+    }
+
+    private static Set<String> grams(String text, boolean padded) {
+        String value = padded ? text + PADDING : text;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class IndexedItem {
+
+        private final long id;
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        IndexedItem(Item item) {
+            this.id = item.getId();
+            this.name = item.getName() == null ? "" : item.getName().toLowerCase();
+            this.description = item.getDescription() == null ? "" : item.getDescription().toLowerCase();
+            this.available = Boolean.TRUE.equals(item.getAvailable());
+        }
+
+        long getId() {
+            return id;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = TrigramItemSearchIndex.grams(name, true);
+            grams.addAll(TrigramItemSearchIndex.grams(description, true));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        int rank(String query) {
+            if (name.startsWith(query)) {
+                return 3;
+            }
+            if (name.contains(query)) {
+                return 2;
+            }
+            return 1;
+        }
+
+    }
+
+}
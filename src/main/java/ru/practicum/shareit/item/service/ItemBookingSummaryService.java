@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+
+    /**
+     * Rebuilds the summaries in the current transaction. The caller holds the item locks.
+     */
+    void refresh(Collection<Long> itemIds);
+
+    /**
+     * Current summaries of the items, missing and outdated ones computed from the bookings.
+     */
+    Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds);
+
+    /**
+     * Rolls forward summaries whose next booking has started.
+     */
+    void rollForward();
+
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repo.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+
+    private static final int ROLL_FORWARD_CHUNK_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Collection<Long> itemIds) {
+        Set<Long> existing = summaryRepository.findAllById(itemIds).stream()
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toSet());
+        for (ItemBookingSummary summary : compute(itemIds, LocalDateTime.now()).values()) {
+            if (existing.contains(summary.getItemId())) {
+                entityManager.merge(summary);
+            } else {
+                entityManager.persist(summary);
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .filter(summary -> summary.isCurrent(now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, summary -> summary));
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            // Not built yet or outdated: answer from the bookings, the scheduled roll forward stores the row
+            summaries.putAll(compute(missing, now));
+        }
+        return summaries;
+    }
+
+    @Override
+    @Scheduled(cron = "${shareit.booking-summary.cron:0 * * * * *}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int refreshed = 0;
+        List<Long> itemIds;
+        do {
+            long from = afterId;
+            itemIds = transactionTemplate.execute(status -> {
+                List<Long> stale = summaryRepository.findStaleItemIds(from, now,
+                        PageRequest.of(0, ROLL_FORWARD_CHUNK_SIZE));
+                if (!stale.isEmpty()) {
+                    itemRepository.findAllLockedById(stale);
+                    refresh(stale);
+                }
+                return stale;
+            });
+            if (!itemIds.isEmpty()) {
+                afterId = itemIds.get(itemIds.size() - 1);
+                refreshed += itemIds.size();
+            }
+        } while (itemIds.size() == ROLL_FORWARD_CHUNK_SIZE);
+        if (refreshed > 0) {
+            log.info("Пересчитаны сводки бронирований {} вещей", refreshed);
+        }
+    }
+
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Set<Long> ids = new TreeSet<>(itemIds);
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        ids.forEach(itemId -> summaries.put(itemId, ItemBookingSummary.builder().itemId(itemId).build()));
+        for (ItemBookingView booking : bookingRepository.findLastAndNextApprovedByItemIds(ids, now)) {
+            ItemBookingSummary summary = summaries.get(booking.getItemId());
+            if ("LAST".equals(booking.getKind())) {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookerId(booking.getBookerId());
+                summary.setLastEnd(booking.getEndDate());
+            } else {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookerId(booking.getBookerId());
+                summary.setNextStart(booking.getStartDate());
+            }
+        }
+        return summaries;
+    }
+
+}
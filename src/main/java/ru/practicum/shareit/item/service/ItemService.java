@@ -1,24 +1,40 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto addNewItem(long userId, ItemDto itemDto);
 
+    List<ItemDto> importItems(long userId, List<ItemDto> items);
+
     ItemDto updateItem(long userId, long itemId, ItemDto itemDto);
 
     ItemDto getItem(long userId, long itemId);
 
+    /**
+     * Conditional GET tag of the item view: item and comment versions, plus the bookings for the owner.
+     */
+    String getItemTag(long userId, long itemId);
+
     List<ItemDto> getOwnerItems(long userId);
 
-    List<ItemDto> search(long userId, String text);
+    List<ItemDto> search(long userId, String text, int from, int size);
+
+    List<ItemDto> search(long userId, String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    List<AvailabilityIntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 
-    Item findItem(long itemId);
+    /**
+     * Item from the "items" cache, without loading the entity.
+     */
+    ItemSnapshot findItem(long itemId);
 
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
 
@@ -2,29 +2,50 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repo.BookingRepository;
-import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.enums.OutboxEventType;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityTimeline;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.CommentAddedEvent;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repo.CommentRepository;
 import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repo.ItemRequestRepository;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,51 +53,120 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemAvailabilityTimeline itemAvailabilityTimeline;
+    private final OutboxService outboxService;
 
     private final ItemMapper itemMapper;
     private final UserMapper userMapper;
-    private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
+    private final CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public ItemDto addNewItem(long userId, ItemDto itemDto) {
-        validate(itemDto);
+        validate(userId, itemDto);
         Item item = itemMapper.toItem(itemDto);
         User owner = userMapper.toUser(userService.getUser(userId));
         item.setOwner(owner);
-        return itemMapper.toItemDto(itemRepository.save(item));
+        item.setRequest(findRequests(List.of(itemDto)).get(itemDto.getRequestId()));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        return itemMapper.toItemDto(savedItem);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> importItems(long userId, List<ItemDto> items) {
+        if (items == null || items.isEmpty()) {
+            log.info("Пользователь id={} передал пустой список предметов для импорта", userId);
+            throw new ValidationException();
+        }
+        items.forEach(itemDto -> validate(userId, itemDto));
+        User owner = userMapper.toUser(userService.getUser(userId));
+        Map<Long, ItemRequest> requests = findRequests(items);
+        List<ItemDto> imported = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += IMPORT_CHUNK_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(items.size(), from + IMPORT_CHUNK_SIZE)).stream()
+                    .map(itemDto -> {
+                        Item item = itemMapper.toItem(itemDto);
+                        item.setId(null);
+                        item.setOwner(owner);
+                        item.setRequest(requests.get(itemDto.getRequestId()));
+                        return item;
+                    })
+                    .collect(Collectors.toList());
+            itemRepository.saveAll(chunk);
+            // Inserts leave in JDBC batches on flush, clearing keeps the persistence context at one chunk
+            itemRepository.flush();
+            entityManager.clear();
+            chunk.forEach(item -> {
+                itemSearchIndex.index(item);
+                imported.add(itemMapper.toItemDto(item));
+            });
+        }
+        log.info("Пользователь id={} импортировал {} предметов", userId, imported.size());
+        return imported;
+    }
+
+    /**
+     * Requests answered by the items in one query, an unknown request is 404.
+     */
+    private Map<Long, ItemRequest> findRequests(List<ItemDto> items) {
+        Set<Long> requestIds = items.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        if (requests.size() != requestIds.size()) {
+            log.info("Вещи отвечают на несуществующие запросы, передано {}, найдено {}",
+                    requestIds.size(), requests.size());
+            throw new NotFoundException();
+        }
+        return requests;
     }
 
-    private void validate(ItemDto itemDto) {
+    private void validate(long userId, ItemDto itemDto) {
         if (itemDto.getName() == null || itemDto.getName().isBlank()) {
-            log.info("В предмете {} не указано наименование", itemDto);
+            log.info("В предмете от пользователя id={} не указано наименование", userId);
             throw new ValidationException();
         } else if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
-            log.info("В предмете {} не указано описание", itemDto);
+            log.info("В предмете от пользователя id={} не указано описание", userId);
             throw new ValidationException();
         } else if (itemDto.getAvailable() == null) {
-            log.info("В предмете {} не указан статус доступности", itemDto);
+            log.info("В предмете от пользователя id={} не указан статус доступности", userId);
             throw new ValidationException();
         }
     }
 
     @Override
+    @CacheEvict(cacheNames = "items", key = "#itemId")
     public ItemDto updateItem(long userId, long itemId, ItemDto itemDto) {
         Optional<Item> optionalItem = itemRepository.findById(itemId);
         if (optionalItem.isEmpty()) {
             throw new NotFoundException();
         }
         Item itemToUpdate = optionalItem.get();
-        User owner = userMapper.toUser(userService.getUser(userId));
-        if (!itemToUpdate.getOwner().equals(owner)) {
-            log.info("У предмета с id {} указан другой владелец {}, обращается пользователь {}",
+        userService.getUser(userId);
+        if (itemToUpdate.getOwner().getId() != userId) {
+            log.info("У предмета с id {} указан другой владелец id={}, обращается пользователь id={}",
                     itemId,
-                    itemToUpdate.getOwner(),
-                    owner);
+                    itemToUpdate.getOwner().getId(),
+                    userId);
             throw new NotFoundException();
         }
         if (itemDto.getName() != null) {
@@ -89,41 +179,61 @@ public class ItemServiceImpl implements ItemService {
             itemToUpdate.setAvailable(itemDto.getAvailable());
         }
         Item savedItem = itemRepository.save(itemToUpdate);
-        log.info("Обновлен item: {}", savedItem);
+        itemSearchIndex.index(savedItem);
+        log.info("Обновлен item id={}", savedItem.getId());
         return itemMapper.toItemDto(savedItem);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemDto getItem(long userId, long itemId) {
         if (itemId == 0) {
             throw new ValidationException();
         }
-        Optional<Item> optionalItem = itemRepository.findById(itemId);
-        if (optionalItem.isEmpty()) {
-            throw new NotFoundException();
-        }
-        Item item = optionalItem.get();
+        ItemSnapshot item = findItem(itemId);
         ItemDto itemDto = itemMapper.toItemDto(item);
-        if (item.getOwner().getId().equals(userId)) {
+        if (item.getOwnerId() == userId) {
             addBookings(itemDto);
         }
         addComments(itemDto);
         return itemDto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemTag(long userId, long itemId) {
+        if (itemId == 0) {
+            throw new ValidationException();
+        }
+        ItemVersionView version = itemRepository.findVersionById(itemId).orElseThrow(NotFoundException::new);
+        String tag = version.getVersion() + "-" + version.getCommentCount() + "-" + version.getCommentVersions();
+        if (version.getOwnerId() != userId) {
+            return tag;
+        }
+        // last and next bookings also move with time, the summary service answers for the current moment
+        ItemBookingSummary summary = itemBookingSummaryService.getSummaries(List.of(itemId)).get(itemId);
+        return tag + "-" + summary.getLastBookingId() + "-" + summary.getNextBookingId();
+    }
+
     private void addBookings(ItemDto itemDto) {
-        long itemId = itemDto.getId();
-        Optional<Booking> lastBooking = bookingRepository.findFirst1ByItemIdIsAndStartIsBeforeAndStatusIsOrderByEndDesc(
-                itemId,
-                LocalDateTime.now(),
-                BookingStatus.APPROVED);
-        itemDto.setLastBooking(bookingMapper.toBookingForItemDto(lastBooking.orElse(null)));
+        ItemBookingSummary summary = itemBookingSummaryService.getSummaries(List.of(itemDto.getId()))
+                .get(itemDto.getId());
+        addBookings(itemDto, summary);
+    }
 
-        Optional<Booking> nextBooking = bookingRepository.findFirst1ByItemIdIsAndStartIsAfterAndStatusIsOrderByStartAsc(
-                itemId,
-                LocalDateTime.now(),
-                BookingStatus.APPROVED);
-        itemDto.setNextBooking(bookingMapper.toBookingForItemDto(nextBooking.orElse(null)));
+    private void addBookings(ItemDto itemDto, ItemBookingSummary summary) {
+        itemDto.setLastBooking(toBookingForItemDto(summary.getLastBookingId(), summary.getLastBookerId()));
+        itemDto.setNextBooking(toBookingForItemDto(summary.getNextBookingId(), summary.getNextBookerId()));
+    }
+
+    private BookingForItemDto toBookingForItemDto(Long bookingId, Long bookerId) {
+        if (bookingId == null) {
+            return null;
+        }
+        return BookingForItemDto.builder()
+                .id(bookingId)
+                .bookerId(bookerId)
+                .build();
     }
 
     private void addComments(ItemDto itemDto) {
@@ -136,46 +246,92 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> getOwnerItems(long userId) {
-        List<Item> ownerItems = itemRepository.findAllByOwnerId(userId);
-        List<ItemDto> listItemDto = ownerItems.stream()
-                .map(item -> {
-                    ItemDto itemDto = itemMapper.toItemDto(item);
-                    addBookings(itemDto);
-                    addComments(itemDto);
-                    return itemDto;
-                })
+        List<ItemDto> listItemDto = itemRepository.findOwnerItemDtos(userId);
+        if (listItemDto.isEmpty()) {
+            return listItemDto;
+        }
+        List<Long> itemIds = listItemDto.stream()
+                .map(ItemDto::getId)
                 .collect(Collectors.toList());
+        addBookings(listItemDto, itemIds);
+        addComments(listItemDto, itemIds);
         return listItemDto;
     }
 
+    private void addBookings(List<ItemDto> listItemDto, List<Long> itemIds) {
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getSummaries(itemIds);
+        listItemDto.forEach(itemDto -> addBookings(itemDto, summaries.get(itemDto.getId())));
+    }
+
+    private void addComments(List<ItemDto> listItemDto, List<Long> itemIds) {
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        listItemDto.forEach(itemDto -> itemDto.setComments(comments.getOrDefault(itemDto.getId(), new ArrayList<>())));
+    }
+
     @Override
-    public List<ItemDto> search(long userId, String text) {
+    @Transactional(readOnly = true)
+    public List<ItemDto> search(long userId, String text, int from, int size) {
+        return search(userId, text, null, null, from, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> search(long userId, String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        if (from < 0 || size < 1) {
+            log.info("Указаны неверные параметры страницы from={}, size={}", from, size);
+            throw new ValidationException();
+        }
+        if ((start == null) != (end == null)) {
+            log.info("Для поиска свободных вещей указана только одна дата периода {} - {}", start, end);
+            throw new ValidationException();
+        }
+        if (start != null && (!start.isBefore(end) || start.isBefore(LocalDateTime.now()))) {
+            log.info("Для поиска свободных вещей указан неверный период {} - {}", start, end);
+            throw new ValidationException();
+        }
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        List<Item> foundItems = itemRepository.search(text);
-        return foundItems
-                .stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return itemSearchIndex.search(text, start, end, from, size);
+    }
+
+    @Override
+    public List<AvailabilityIntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            log.info("Указан неверный период {} - {} для календаря вещи id={}", from, to, itemId);
+            throw new ValidationException();
+        }
+        if (!findItem(itemId).getAvailable()) {
+            return new ArrayList<>();
+        }
+        return itemAvailabilityTimeline.getFreeIntervals(itemId, from, to);
     }
 
-    public Item findItem(long itemId) {
+    @Override
+    public ItemSnapshot findItem(long itemId) {
         if (itemId == 0) {
             throw new ValidationException();
         }
-        Optional<Item> item = itemRepository.findById(itemId);
-        if (item.isEmpty()) {
-            throw new NotFoundException();
+        // the cache is read directly, an annotated method would be bypassed by calls from this class
+        Cache cache = cacheManager.getCache("items");
+        ItemSnapshot item = cache.get(itemId, ItemSnapshot.class);
+        if (item == null) {
+            item = itemRepository.findSnapshotById(itemId).orElseThrow(NotFoundException::new);
+            cache.put(itemId, item);
         }
-        return item.get();
+        return item;
     }
 
     @Override
+    @Transactional
     public CommentDto addComment(long userId, long itemId, CommentDto commentDto) {
         User author = userMapper.toUser(userService.getUser(userId));
-        Item item = findItem(itemId);
+        ItemSnapshot item = findItem(itemId);
         Optional<Booking> booking = bookingRepository.findFirst1ByItemIdAndBookerIdAndEndIsBefore(itemId, userId, LocalDateTime.now());
         if (booking.isEmpty()) {
             log.info("Пользователь с id={} не может добавить отзыв к товару с id={}, он не бронировал его",
@@ -190,13 +346,19 @@ public class ItemServiceImpl implements ItemService {
         }
         Comment comment = Comment.builder()
                 .text(text)
-                .item(item)
+                .item(itemRepository.getReferenceById(itemId))
                 .author(author)
                 .created(LocalDateTime.now())
                 .build();
         Comment savedComment = commentRepository.save(comment);
-        log.info("Сохранен новый отзыв {} от пользователя с id={} на товар с id={} текста",
-                savedComment,
+        outboxService.append(OutboxEventType.COMMENT_ADDED, itemId, CommentAddedEvent.builder()
+                .commentId(savedComment.getId())
+                .itemId(itemId)
+                .authorId(userId)
+                .ownerId(item.getOwnerId())
+                .build());
+        log.info("Сохранен новый отзыв id={} от пользователя с id={} на товар с id={}",
+                savedComment.getId(),
                 userId,
                 itemId);
         return commentMapper.toCommentDto(savedComment);
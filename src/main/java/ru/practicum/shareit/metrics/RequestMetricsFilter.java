@@ -0,0 +1,97 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts SQL statements per HTTP request and logs slow and chatty requests.
+ */
+@Slf4j
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final long slowRequestNanos;
+    private final long chattyRequestStatements;
+
+    public RequestMetricsFilter(SqlStatementCounter counter,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.metrics.slow-request-ms:500}") long slowRequestMs,
+                                @Value("${shareit.metrics.chatty-request-statements:20}") long chattyRequestStatements) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMs);
+        this.chattyRequestStatements = chattyRequestStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicLong statements = counter.start();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // the handler still runs on an executor thread, the request is recorded once it completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start, statements.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start, long statements) {
+        long duration = System.nanoTime() - start;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("shareit.http.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        // an event stream is open for as long as the client listens, its duration says nothing
+        boolean eventStream = response.getContentType() != null
+                && response.getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        if ((!eventStream && duration >= slowRequestNanos) || statements >= chattyRequestStatements) {
+            log.warn("Тяжёлый запрос {} {}: {} мс, {} SQL-запросов, статус {}",
+                    request.getMethod(), uri, TimeUnit.NANOSECONDS.toMillis(duration), statements,
+                    response.getStatus());
+        }
+    }
+
+}
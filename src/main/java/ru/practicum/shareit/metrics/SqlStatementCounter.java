@@ -0,0 +1,47 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts SQL statements Hibernate prepares on the current thread, carried to executor threads
+ * by the {@link TaskDecorator}.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, TaskDecorator {
+
+    private final ThreadLocal<AtomicLong> statements = ThreadLocal.withInitial(AtomicLong::new);
+
+    @Override
+    public String inspect(String sql) {
+        statements.get().incrementAndGet();
+        return sql;
+    }
+
+    /**
+     * Starts a new count for the current thread and the tasks it hands to the executor.
+     */
+    public AtomicLong start() {
+        AtomicLong counter = new AtomicLong();
+        statements.set(counter);
+        return counter;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        AtomicLong counter = statements.get();
+        return () -> {
+            AtomicLong previous = statements.get();
+            statements.set(counter);
+            try {
+                runnable.run();
+            } finally {
+                statements.set(previous);
+            }
+        };
+    }
+
+}
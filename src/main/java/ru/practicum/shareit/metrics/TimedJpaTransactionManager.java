@@ -0,0 +1,61 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records each physical transaction in the {@code shareit.transactions} timer. Starts are kept on a stack
+ * because REQUIRES_NEW transactions begin on the same thread.
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+
+    private final transient MeterRegistry meterRegistry;
+    private final transient ThreadLocal<Deque<Started>> started = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public TimedJpaTransactionManager(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        started.get().push(new Started(System.nanoTime(), definition.getName(), definition.isReadOnly()));
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Started transactionStart = started.get().poll();
+            if (transactionStart != null) {
+                Timer.builder("shareit.transactions")
+                        .tag("name", transactionStart.name == null ? "unnamed" : transactionStart.name)
+                        .tag("read.only", String.valueOf(transactionStart.readOnly))
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - transactionStart.nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static class Started {
+
+        private final long nanos;
+        private final String name;
+        private final boolean readOnly;
+
+        Started(long nanos, String name, boolean readOnly) {
+            this.nanos = nanos;
+            this.name = name;
+            this.readOnly = readOnly;
+        }
+
+    }
+
+}
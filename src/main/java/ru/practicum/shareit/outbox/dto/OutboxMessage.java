@@ -0,0 +1,17 @@
+package ru.practicum.shareit.outbox.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.enums.OutboxEventType;
+
+@Data
+@Builder
+public class OutboxMessage {
+
+    private long id;
+    private OutboxEventType eventType;
+    private long aggregateId;
+    private String payload;
+    private int attempt;
+
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.outbox.model;
+
+import lombok.*;
+import ru.practicum.shareit.enums.OutboxEventType;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Pending event. Delivered events are deleted, events out of attempts stay with {@code dead = true}.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private long id;
+
+    /**
+     * Write order, assigned by the database on insert. Ids come in pooled blocks per node and are not ordered.
+     */
+    @Column(insertable = false, updatable = false)
+    private Long seq;
+
+    @Column(name = "aggregate_type")
+    private String aggregateType;
+
+    @Column(name = "aggregate_id")
+    private long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    private OutboxEventType eventType;
+
+    private String payload;
+
+    private LocalDateTime created;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    private boolean dead;
+
+}
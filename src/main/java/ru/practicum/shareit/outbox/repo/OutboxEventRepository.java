@@ -0,0 +1,23 @@
+package ru.practicum.shareit.outbox.repo;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Next page of pending events, locked so that another dispatcher waits instead of overtaking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e where e.dead = false and e.seq > ?1 order by e.seq")
+    List<OutboxEvent> findPendingForUpdate(long afterSeq, Pageable pageable);
+
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.outbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.dto.CommentAddedEvent;
+import ru.practicum.shareit.outbox.dto.OutboxMessage;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Notifies participants of bookings and comments. For now notifications are only logged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxConsumer implements OutboxConsumer {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void consume(OutboxMessage message) {
+        switch (message.getEventType()) {
+            case BOOKING_CREATED: {
+                BookingStatusChangedEvent event = read(message, BookingStatusChangedEvent.class);
+                log.info("Уведомление user id={}: новое бронирование id={} вещи id={}",
+                        event.getOwnerId(), event.getBookingId(), event.getItemId());
+                break;
+            }
+            case BOOKING_STATUS_CHANGED: {
+                BookingStatusChangedEvent event = read(message, BookingStatusChangedEvent.class);
+                log.info("Уведомление user id={}: бронирование id={} вещи id={} теперь {}",
+                        event.getBookerId(), event.getBookingId(), event.getItemId(), event.getStatus());
+                break;
+            }
+            case COMMENT_ADDED: {
+                CommentAddedEvent event = read(message, CommentAddedEvent.class);
+                log.info("Уведомление user id={}: новый отзыв id={} на вещь id={}",
+                        event.getOwnerId(), event.getCommentId(), event.getItemId());
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private <T> T read(OutboxMessage message, Class<T> type) {
+        try {
+            return objectMapper.readValue(message.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.outbox.dto.OutboxMessage;
+
+/**
+ * Gets every event at least once, in write order per aggregate, so it must be idempotent.
+ */
+public interface OutboxConsumer {
+
+    void consume(OutboxMessage message);
+
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.dto.OutboxMessage;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repo.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drains the outbox in write order. A failed event holds back the later events of its aggregate
+ * until it is delivered or given up. Each delivery runs in its own transaction.
+ * <p>
+ * The write order is {@code seq}, taken from a non-pooled sequence by the insert. The writes of one aggregate
+ * are serialized (a booking is decided under its item lock and only after its creation is committed),
+ * so {@code seq} grows along them whichever node wrote them.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxConsumer> consumers;
+    private final TransactionTemplate pageTransaction;
+    private final TransactionTemplate deliveryTransaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxConsumer> consumers,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                            @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${shareit.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+                            @Value("${shareit.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.consumers = consumers;
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.deliveryTransaction = new TransactionTemplate(transactionManager);
+        this.deliveryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+    }
+
+    @Scheduled(cron = "${shareit.outbox.cron:* * * * * *}")
+    public void dispatch() {
+        Set<String> blocked = new HashSet<>();
+        long afterSeq = 0;
+        int delivered = 0;
+        List<OutboxEvent> page;
+        do {
+            long pageAfterSeq = afterSeq;
+            List<Long> deliveredIds = new ArrayList<>();
+            List<OutboxEvent> events = pageTransaction.execute(status -> {
+                List<OutboxEvent> pending = outboxEventRepository.findPendingForUpdate(pageAfterSeq,
+                        PageRequest.of(0, batchSize));
+                deliveredIds.addAll(settle(pending, blocked));
+                if (!deliveredIds.isEmpty()) {
+                    outboxEventRepository.deleteAllByIdInBatch(deliveredIds);
+                }
+                return pending;
+            });
+            page = events == null ? List.of() : events;
+            delivered += deliveredIds.size();
+            if (!page.isEmpty()) {
+                afterSeq = page.get(page.size() - 1).getSeq();
+            }
+        } while (page.size() == batchSize);
+        if (delivered > 0 || !blocked.isEmpty()) {
+            log.info("Outbox: доставлено событий {}, ждут повтора агрегатов {}", delivered, blocked.size());
+        }
+    }
+
+    private List<Long> settle(List<OutboxEvent> events, Set<String> blocked) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> deliveredIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            String key = key(event);
+            if (blocked.contains(key)) {
+                continue;
+            }
+            if (event.getNextAttemptAt().isAfter(now)) {
+                blocked.add(key);
+                continue;
+            }
+            try {
+                deliver(event);
+                deliveredIds.add(event.getId());
+            } catch (RuntimeException e) {
+                fail(event, e, now);
+                if (!event.isDead()) {
+                    blocked.add(key);
+                }
+            }
+        }
+        return deliveredIds;
+    }
+
+    private void deliver(OutboxEvent event) {
+        OutboxMessage message = OutboxMessage.builder()
+                .id(event.getId())
+                .eventType(event.getEventType())
+                .aggregateId(event.getAggregateId())
+                .payload(event.getPayload())
+                .attempt(event.getAttempts() + 1)
+                .build();
+        deliveryTransaction.executeWithoutResult(status -> consumers.forEach(consumer -> consumer.consume(message)));
+    }
+
+    private void fail(OutboxEvent event, RuntimeException error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String message = String.valueOf(error.getMessage());
+        event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (attempts >= maxAttempts) {
+            // given up, so the rest of the aggregate is not stuck behind it forever
+            event.setDead(true);
+            log.warn("Событие outbox id={} {} агрегата {} не доставлено за {} попыток: {}",
+                    event.getId(), event.getEventType(), key(event), attempts, message);
+            return;
+        }
+        long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+        event.setNextAttemptAt(now.plus(backoffMs, ChronoUnit.MILLIS));
+        log.info("Событие outbox id={} {} не доставлено, попытка {}, повтор через {} мс: {}",
+                event.getId(), event.getEventType(), attempts, backoffMs, message);
+    }
+
+    private static String key(OutboxEvent event) {
+        return event.getAggregateType() + ":" + event.getAggregateId();
+    }
+
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.enums.OutboxEventType;
+
+public interface OutboxService {
+
+    /**
+     * Writes the event in the caller's transaction, it is delivered only if that transaction commits.
+     */
+    void append(OutboxEventType type, long aggregateId, Object payload);
+
+}
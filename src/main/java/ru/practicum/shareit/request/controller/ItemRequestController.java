@@ -1,9 +1,88 @@
 package ru.practicum.shareit.request.controller;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.web.RequestExecutor;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/requests")
 public class ItemRequestController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ItemRequestService itemRequestService;
+
+    private final RequestExecutor requestExecutor;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<ItemRequestDto>> add(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                 @RequestBody ItemRequestDto itemRequestDto) {
+        log.info("Received POST-request at /requests endpoint from user id={}", userId);
+        return requestExecutor.submit(() ->
+                ResponseEntity.ok().body(itemRequestService.addNewRequest(userId, itemRequestDto)));
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<ItemRequestDto>>> getOwnRequests(
+            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.info("Received GET-request at /requests endpoint from user id={}", userId);
+        if (from == null && size == null && cursor == null) {
+            return requestExecutor.submit(() -> ResponseEntity.ok().body(itemRequestService.getOwnRequests(userId,
+                    null,
+                    0,
+                    Integer.MAX_VALUE)));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        return requestExecutor.submit(() -> toPage(itemRequestService.getOwnRequests(userId,
+                after,
+                from == null ? 0 : from,
+                pageSize), pageSize));
+    }
+
+    /**
+     * Requests of others are always paged, the next page is in {@code X-Next-Cursor}.
+     */
+    @GetMapping("/all")
+    public CompletableFuture<ResponseEntity<List<ItemRequestDto>>> getOtherRequests(
+            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("Received GET-request at /requests/all endpoint from user id={}", userId);
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        return requestExecutor.submit(() ->
+                toPage(itemRequestService.getOtherRequests(userId, after, from, size), size));
+    }
+
+    @GetMapping("/{requestId}")
+    public CompletableFuture<ResponseEntity<ItemRequestDto>> get(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                 @PathVariable long requestId) {
+        log.info("Received GET-request at /requests/{} endpoint from user id={}", requestId, userId);
+        return requestExecutor.submit(() -> ResponseEntity.ok().body(itemRequestService.getRequest(userId, requestId)));
+    }
+
+    private ResponseEntity<List<ItemRequestDto>> toPage(List<ItemRequestDto> requests, int pageSize) {
+        if (requests.size() < pageSize) {
+            return ResponseEntity.ok().body(requests);
+        }
+        ItemRequestDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(PageCursor.NEXT_CURSOR_HEADER, new PageCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
+
 }
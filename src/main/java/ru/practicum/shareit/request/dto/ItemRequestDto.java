@@ -1,18 +1,32 @@
 package ru.practicum.shareit.request.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.user.model.User;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequestDto {
 
     private long id;
     private String description;
-    private User requestor;
     private LocalDateTime created;
+    private List<ItemDto> items;
+
+    /**
+     * Constructor for JPQL {@code select new}, answers are filled in separately.
+     */
+    public ItemRequestDto(Long id, String description, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.created = created;
+    }
 
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+@Mapper(componentModel = "spring")
+public interface ItemRequestMapper {
+
+    @Mapping(target = "items", ignore = true)
+    ItemRequestDto toItemRequestDto(ItemRequest itemRequest);
+
+}
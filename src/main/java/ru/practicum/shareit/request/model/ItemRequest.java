@@ -4,6 +4,7 @@ import lombok.*;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "requests")
@@ -15,7 +16,8 @@ import javax.persistence.*;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private long id;
 
     @Column
@@ -24,4 +26,7 @@ public class ItemRequest {
     @ManyToOne(fetch = FetchType.LAZY)
     private User requestor;
 
+    @Column
+    private LocalDateTime created;
+
 }
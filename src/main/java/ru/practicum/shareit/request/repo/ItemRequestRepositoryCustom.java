@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.repo;
+
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestRepositoryCustom {
+
+    List<ItemRequestDto> findOwnRequests(long userId, PageCursor after, int from, int size);
+
+    List<ItemRequestDto> findOtherRequests(long userId, PageCursor after, int from, int size);
+
+}
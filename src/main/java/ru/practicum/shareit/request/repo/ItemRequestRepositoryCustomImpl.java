@@ -0,0 +1,55 @@
+package ru.practicum.shareit.request.repo;
+
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Feeds ordered by (created, id) descending and continued from the last row of the previous page,
+ * so a page costs the same however far the client has scrolled.
+ */
+public class ItemRequestRepositoryCustomImpl implements ItemRequestRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemRequestDto> findOwnRequests(long userId, PageCursor after, int from, int size) {
+        return createQuery(userId, true, after)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<ItemRequestDto> findOtherRequests(long userId, PageCursor after, int from, int size) {
+        return createQuery(userId, false, after)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private TypedQuery<ItemRequestDto> createQuery(long userId, boolean own, PageCursor after) {
+        StringBuilder jpql = new StringBuilder("select new ru.practicum.shareit.request.dto.ItemRequestDto(")
+                .append("r.id, r.description, r.created) ")
+                .append("from ItemRequest r where ")
+                .append(own ? "r.requestor.id = :userId" : "r.requestor.id <> :userId");
+        if (after != null) {
+            jpql.append(" and (r.created < :afterCreated or (r.created = :afterCreated and r.id < :afterId))");
+        }
+        jpql.append(" order by r.created desc, r.id desc");
+
+        TypedQuery<ItemRequestDto> query = entityManager.createQuery(jpql.toString(), ItemRequestDto.class)
+                .setParameter("userId", userId);
+        if (after != null) {
+            query.setParameter("afterCreated", after.getTimestamp())
+                    .setParameter("afterId", after.getId());
+        }
+        return query;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+
+    ItemRequestDto addNewRequest(long userId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestDto> getOwnRequests(long userId, PageCursor after, int from, int size);
+
+    List<ItemRequestDto> getOtherRequests(long userId, PageCursor after, int from, int size);
+
+    ItemRequestDto getRequest(long userId, long requestId);
+
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repo.ItemRequestRepository;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+
+    private final ItemRequestMapper itemRequestMapper;
+    private final UserMapper userMapper;
+
+    @Override
+    public ItemRequestDto addNewRequest(long userId, ItemRequestDto itemRequestDto) {
+        User requestor = userMapper.toUser(userService.getUser(userId));
+        String description = itemRequestDto.getDescription();
+        if (description == null || description.isBlank()) {
+            log.info("В запросе от пользователя id={} не указано описание", userId);
+            throw new ValidationException();
+        }
+        ItemRequest itemRequest = ItemRequest.builder()
+                .description(description)
+                .requestor(requestor)
+                .created(LocalDateTime.now())
+                .build();
+        ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
+        log.info("Добавлен запрос id={} от пользователя id={}", savedRequest.getId(), userId);
+        ItemRequestDto savedRequestDto = itemRequestMapper.toItemRequestDto(savedRequest);
+        savedRequestDto.setItems(new ArrayList<>());
+        return savedRequestDto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwnRequests(long userId, PageCursor after, int from, int size) {
+        userService.getUser(userId);
+        validatePage(from, size);
+        return addItems(itemRequestRepository.findOwnRequests(userId, after, from, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOtherRequests(long userId, PageCursor after, int from, int size) {
+        userService.getUser(userId);
+        validatePage(from, size);
+        return addItems(itemRequestRepository.findOtherRequests(userId, after, from, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto getRequest(long userId, long requestId) {
+        userService.getUser(userId);
+        ItemRequestDto itemRequestDto = itemRequestRepository.findRequestDtoById(requestId)
+                .orElseThrow(NotFoundException::new);
+        return addItems(List.of(itemRequestDto)).get(0);
+    }
+
+    /**
+     * Answers to the whole page are read in one query by the {@code items(request_id)} index.
+     */
+    private List<ItemRequestDto> addItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findRequestAnswerDtos(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        requests.forEach(request -> request.setItems(items.getOrDefault(request.getId(), new ArrayList<>())));
+        return requests;
+    }
+
+    private void validatePage(int from, int size) {
+        if (from < 0 || size < 1) {
+            log.info("Указаны неверные параметры страницы from={}, size={}", from, size);
+            throw new ValidationException();
+        }
+    }
+
+}
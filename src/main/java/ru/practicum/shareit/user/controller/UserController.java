@@ -2,10 +2,12 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.web.EntityTags;
 
 import java.util.List;
 
@@ -24,9 +26,11 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUser(@PathVariable("id") long userId) {
+    public ResponseEntity<UserDto> getUser(@PathVariable("id") long userId,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch) {
         log.info("Received GET-request at /users/{} endpoint", userId);
-        return ResponseEntity.ok().body(userService.getUser(userId));
+        return EntityTags.conditional(ifNoneMatch, userService.getUserTag(userId), () -> userService.getUser(userId));
     }
 
     @PostMapping
@@ -35,6 +39,12 @@ public class UserController {
         return ResponseEntity.ok().body(userService.create(userDto));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDto>> importUsers(@RequestBody List<UserDto> users) {
+        log.info("Received POST-request at /users/batch endpoint with {} users", users.size());
+        return ResponseEntity.ok().body(userService.importUsers(users));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<UserDto> update(@PathVariable("id") long userId, @RequestBody UserDto userDto) {
         log.info("Received PATCH-request at /users/{} endpoint", userId);
@@ -1,9 +1,18 @@
 package ru.practicum.shareit.user.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    boolean existsByEmailAndIdNot(String email, long id);
+
+    @Query("select u.version from User u where u.id = ?1")
+    Optional<Long> findVersionById(long userId);
+
 }
@@ -10,10 +10,17 @@ public interface UserService {
 
     UserDto create(UserDto userDto);
 
+    List<UserDto> importUsers(List<UserDto> users);
+
     UserDto update(long userId, UserDto userDto);
 
     UserDto getUser(long userId);
 
+    /**
+     * Conditional GET tag of the user, read without loading the record.
+     */
+    String getUserTag(long userId);
+
     void deleteUser(long userId);
 
 }
@@ -2,17 +2,17 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.exception.ConflictException;
-import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
-import ru.practicum.shareit.user.repo.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,12 +20,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
+    private final UserStorage userStorage;
 
     private final UserMapper userMapper;
 
     public List<UserDto> getAll() {
-        List<User> users = userRepository.findAll();
+        List<User> users = userStorage.getAll();
         return users.stream()
                 .map(userMapper::toUserDto)
                 .collect(Collectors.toList());
@@ -34,76 +34,74 @@ public class UserServiceImpl implements UserService {
     public UserDto create(UserDto userDto) {
         User user = userMapper.toUser(userDto);
         validateToCreate(user);
-        user = userRepository.save(user);
-        log.info("Добавлен новый пользователь: {}", user);
+        user = userStorage.create(user);
+        log.info("Добавлен новый пользователь id={}", user.getId());
         return userMapper.toUserDto(user);
     }
 
+    public List<UserDto> importUsers(List<UserDto> users) {
+        if (users == null || users.isEmpty()) {
+            log.info("Передан пустой список пользователей для импорта");
+            throw new ValidationException();
+        }
+        List<User> newUsers = users.stream()
+                .map(userDto -> {
+                    User user = userMapper.toUser(userDto);
+                    user.setId(null);
+                    validateToCreate(user);
+                    return user;
+                })
+                .collect(Collectors.toList());
+        newUsers = userStorage.createAll(newUsers);
+        log.info("Импортировано {} пользователей", newUsers.size());
+        return newUsers.stream()
+                .map(userMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     private void validateToCreate(User user) {
         String email = user.getEmail();
         if (email == null) {
-            log.info("У пользователя {} не задана электронная почта", user);
+            log.info("У нового пользователя не задана электронная почта");
             throw new ValidationException();
         }
         if (!email.contains("@")) {
-            log.info("У пользователя {} указана неверная электронная почта", user);
+            log.info("У нового пользователя указана неверная электронная почта {}", email);
             throw new ValidationException();
         }
     }
 
+    @CachePut(cacheNames = "users", key = "#userId")
     public UserDto update(long userId, UserDto userDto) {
-        User user = findUser(userId);
-        if (userDto.getName() != null) {
-            user.setName(userDto.getName());
-        }
-        if (userDto.getEmail() != null) {
-            user.setEmail(userDto.getEmail());
-        }
-        validateToUpdate(userId, user);
-        return userMapper.toUserDto(userRepository.save(user));
-    }
-
-    private User findUser(long userId) {
         if (userId == 0) {
             throw new ValidationException();
         }
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new NotFoundException();
-        }
-        return user.get();
-    }
-
-    private void validateToUpdate(long userId, User user) {
-        String email = user.getEmail();
+        String email = userDto.getEmail();
         if (email != null && !email.contains("@")) {
-            log.info("У пользователя {} указана неверная электронная почта", user);
+            log.info("У пользователя id={} указана неверная электронная почта {}", userId, email);
             throw new ValidationException();
         }
-        List<User> users = getAll().stream().map(userMapper::toUser).collect(Collectors.toList());
-        for (User userToCheck : users) {
-            if (userToCheck.getId() != userId && userToCheck.getEmail().equals(email)) {
-                log.info("В системе уже есть пользователь c id {} с такой же почтой {}",
-                        userToCheck.getId(),
-                        userToCheck.getEmail());
-                throw new ConflictException();
-            }
-        }
+        return userMapper.toUserDto(userStorage.update(userId, userMapper.toUser(userDto)));
     }
 
+    @Cacheable(cacheNames = "users", key = "#userId")
     public UserDto getUser(long userId) {
         if (userId == 0) {
             throw new ValidationException();
         }
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new NotFoundException();
+        return userMapper.toUserDto(userStorage.getUser(userId));
+    }
+
+    public String getUserTag(long userId) {
+        if (userId == 0) {
+            throw new ValidationException();
         }
-        return userMapper.toUserDto(user.get());
+        return String.valueOf(userStorage.getVersion(userId));
     }
 
+    @CacheEvict(cacheNames = "users", key = "#userId")
     public void deleteUser(long userId) {
-        userRepository.deleteById(userId);
+        userStorage.deleteUser(userId);
     }
 
 }
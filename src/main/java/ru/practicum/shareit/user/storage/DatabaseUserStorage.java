@@ -0,0 +1,84 @@
+package ru.practicum.shareit.user.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.util.List;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.users.storage", havingValue = "database", matchIfMissing = true)
+public class DatabaseUserStorage implements UserStorage {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public List<User> getAll() {
+        return userRepository.findAll();
+    }
+
+    @Override
+    public User create(User user) {
+        return save(user);
+    }
+
+    @Override
+    public List<User> createAll(List<User> users) {
+        try {
+            return userRepository.saveAllAndFlush(users);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Среди импортируемых пользователей есть почта, которая уже занята");
+            throw new ConflictException();
+        }
+    }
+
+    @Override
+    public User update(long userId, User user) {
+        User userToUpdate = getUser(userId);
+        if (user.getName() != null) {
+            userToUpdate.setName(user.getName());
+        }
+        if (user.getEmail() != null) {
+            userToUpdate.setEmail(user.getEmail());
+            if (userRepository.existsByEmailAndIdNot(user.getEmail(), userId)) {
+                log.info("В системе уже есть другой пользователь с почтой {}, обращается user с id={}",
+                        user.getEmail(), userId);
+                throw new ConflictException();
+            }
+        }
+        return save(userToUpdate);
+    }
+
+    @Override
+    public User getUser(long userId) {
+        return userRepository.findById(userId).orElseThrow(NotFoundException::new);
+    }
+
+    @Override
+    public long getVersion(long userId) {
+        return userRepository.findVersionById(userId).orElseThrow(NotFoundException::new);
+    }
+
+    @Override
+    public void deleteUser(long userId) {
+        userRepository.deleteById(userId);
+    }
+
+    private User save(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            log.info("В системе уже есть пользователь с почтой {}", user.getEmail());
+            throw new ConflictException();
+        }
+    }
+
+}
@@ -1,67 +1,125 @@
 package ru.practicum.shareit.user.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Users in process memory. Records are replaced by copies, so readers do not lock. An email is
+ * reserved by whoever first puts it into the email index.
+ */
 @Slf4j
 @Repository
+@ConditionalOnProperty(name = "shareit.users.storage", havingValue = "memory")
 public class InMemoreUserStorage implements UserStorage {
 
-    private final HashMap<Long, User> users = new HashMap<>();
-    private long userId;
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final AtomicLong userId = new AtomicLong();
 
     @Override
     public List<User> getAll() {
-        log.info("Текущее количество пользователей: {}", users.size());
-        return users.values().parallelStream().collect(Collectors.toList());
+        return users.values().stream()
+                .sorted(Comparator.comparing(User::getId))
+                .map(this::copy)
+                .collect(Collectors.toList());
     }
 
     @Override
     public User create(User user) {
-        user.setId(++this.userId);
-        users.put(user.getId(), user);
-        log.info("Добавлен новый пользователь: {}", user);
-        return user;
+        long id = userId.incrementAndGet();
+        reserveEmail(user.getEmail(), id);
+        User created = new User(id, user.getName(), user.getEmail(), 0L);
+        users.put(id, created);
+        log.info("Добавлен новый пользователь id={}", id);
+        return copy(created);
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        List<User> created = new ArrayList<>(newUsers.size());
+        try {
+            for (User user : newUsers) {
+                long id = userId.incrementAndGet();
+                reserveEmail(user.getEmail(), id);
+                created.add(new User(id, user.getName(), user.getEmail(), 0L));
+            }
+        } catch (ConflictException e) {
+            created.forEach(user -> emails.remove(user.getEmail(), user.getId()));
+            throw e;
+        }
+        created.forEach(user -> users.put(user.getId(), user));
+        return created.stream()
+                .map(this::copy)
+                .collect(Collectors.toList());
     }
 
     @Override
     public User update(long userId, User user) {
-        if (!users.containsKey(userId)) {
+        User updated = users.computeIfPresent(userId, (id, current) -> {
+            String email = user.getEmail() == null ? current.getEmail() : user.getEmail();
+            if (!email.equals(current.getEmail())) {
+                reserveEmail(email, id);
+                emails.remove(current.getEmail(), id);
+            }
+            return new User(id, user.getName() == null ? current.getName() : user.getName(), email,
+                    current.getVersion() + 1);
+        });
+        if (updated == null) {
             log.info("Не найден пользователь в списке с id: {}", userId);
             throw new NotFoundException();
         }
-        User userToUpdate = users.get(userId);
-        if (user.getName() != null) {
-            userToUpdate.setName(user.getName());
-        }
-        if (user.getEmail() != null) {
-            userToUpdate.setEmail(user.getEmail());
-        }
-        users.put(userId, userToUpdate);
-        log.info("Обновлены данные пользователя с id {}. Новые данные: {}", userId, userToUpdate);
-        return userToUpdate;
+        log.info("Обновлены данные пользователя с id {}", userId);
+        return copy(updated);
     }
 
     @Override
     public User getUser(long userId) {
-        if (userId == 0) {
-            throw new ValidationException();
+        User user = users.get(userId);
+        if (user == null) {
+            throw new NotFoundException();
         }
-        if (!users.containsKey(userId)) {
+        return copy(user);
+    }
+
+    @Override
+    public long getVersion(long userId) {
+        User user = users.get(userId);
+        if (user == null) {
             throw new NotFoundException();
         }
-        return users.get(userId);
+        return user.getVersion();
     }
 
     @Override
     public void deleteUser(long userId) {
-        users.remove(userId);
+        User removed = users.remove(userId);
+        if (removed != null) {
+            emails.remove(removed.getEmail(), userId);
+        }
+    }
+
+    private void reserveEmail(String email, long id) {
+        Long owner = emails.putIfAbsent(email, id);
+        if (owner != null && owner != id) {
+            log.info("В системе уже есть пользователь с почтой {}", email);
+            throw new ConflictException();
+        }
+    }
+
+    private User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getVersion());
     }
+
 }
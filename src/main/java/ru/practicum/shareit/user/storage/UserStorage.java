@@ -4,15 +4,32 @@ import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
+/**
+ * User storage. A taken email is a {@link ru.practicum.shareit.exception.ConflictException},
+ * a missing user a {@link ru.practicum.shareit.exception.NotFoundException}.
+ */
 public interface UserStorage {
 
     List<User> getAll();
 
     User create(User user);
 
+    /**
+     * Saves all users or none.
+     */
+    List<User> createAll(List<User> users);
+
+    /**
+     * Updates the name and email that are not {@code null}.
+     */
     User update(long userId, User user);
 
     User getUser(long userId);
 
+    /**
+     * Version of the user, changed by every update.
+     */
+    long getVersion(long userId);
+
     void deleteUser(long userId);
 }
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.datasource.ReadYourWritesWindow;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+/**
+ * Bounded executor for request handlers. Extra requests wait in the queue, a full queue answers 503.
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    public AsyncWebConfig(SqlStatementCounter sqlStatementCounter,
+                          ReadYourWritesWindow readYourWritesWindow,
+                          @Value("${shareit.web.async.threads:20}") int threads,
+                          @Value("${shareit.web.async.queue-capacity:1000}") int queueCapacity,
+                          @Value("${shareit.web.async.timeout-ms:30000}") long timeoutMs) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor webTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("web-");
+        executor.setTaskDecorator(runnable -> sqlStatementCounter.decorate(readYourWritesWindow.decorate(runnable)));
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(webTaskExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.web;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs a controller handler on {@code webTaskExecutor}, or on the request thread when
+ * {@code shareit.web.async.enabled=false}.
+ */
+@Component
+public class RequestExecutor {
+
+    private final Executor executor;
+    private final boolean async;
+
+    public RequestExecutor(@Qualifier("webTaskExecutor") Executor executor,
+                           @Value("${shareit.web.async.enabled:true}") boolean async) {
+        this.executor = executor;
+        this.async = async;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> handler) {
+        if (!async) {
+            return CompletableFuture.completedFuture(handler.get());
+        }
+        return CompletableFuture.supplyAsync(handler, executor);
+    }
+
+}
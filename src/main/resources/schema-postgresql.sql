@@ -0,0 +1,23 @@
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER TABLE outbox_events ALTER COLUMN seq SET DEFAULT nextval('outbox_write_seq');
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_waiting ON bookings (booker_id, end_date DESC, id DESC) WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_rejected ON bookings (booker_id, end_date DESC, id DESC) WHERE status = 'REJECTED';
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_waiting ON bookings (owner_id, end_date DESC, id DESC) WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_rejected ON bookings (owner_id, end_date DESC, id DESC) WHERE status = 'REJECTED';
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_start ON bookings (item_id, start_date) INCLUDE (id, booker_id) WHERE status = 'APPROVED';
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_end ON bookings (item_id, end_date) INCLUDE (id, booker_id, start_date) WHERE status = 'APPROVED';
+
+-- Substring search by upper(name) and upper(description) is served by trigram indexes instead of a full scan
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (upper(name) gin_trgm_ops) WHERE is_available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (upper(description) gin_trgm_ops) WHERE is_available;
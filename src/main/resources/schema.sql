@@ -1,55 +1,109 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_seq START WITH 1 INCREMENT BY 50;
+-- Not pooled: taken by the insert itself, so it follows the write order of an aggregate across nodes
+CREATE SEQUENCE IF NOT EXISTS outbox_write_seq START WITH 1 INCREMENT BY 1;
+
 CREATE TABLE IF NOT EXISTS users (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  id BIGINT NOT NULL,
   name VARCHAR(255),
   email VARCHAR(512),
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_user PRIMARY KEY (id),
   CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 CREATE TABLE IF NOT EXISTS requests (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  id BIGINT NOT NULL,
   description VARCHAR(512),
   requestor_id BIGINT REFERENCES users(id),
+  created TIMESTAMP WITHOUT TIME ZONE,
   CONSTRAINT pk_request PRIMARY KEY (id)
 );
 CREATE TABLE IF NOT EXISTS items (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  id BIGINT NOT NULL,
   name VARCHAR(255),
   description VARCHAR(512),
   is_available BOOL,
   owner_id BIGINT REFERENCES users(id),
   request_id BIGINT REFERENCES requests(id),
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_item PRIMARY KEY (id)
 );
 CREATE TABLE IF NOT EXISTS comments (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  id BIGINT NOT NULL,
   text VARCHAR(512),
   item_id BIGINT REFERENCES items(id),
   author_id BIGINT REFERENCES users(id),
   created_date TIMESTAMP WITHOUT TIME ZONE,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_comment PRIMARY KEY (id)
 );
 CREATE TABLE IF NOT EXISTS bookings (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  id BIGINT NOT NULL,
   start_date TIMESTAMP WITHOUT TIME ZONE,
   end_date TIMESTAMP WITHOUT TIME ZONE,
   item_id BIGINT REFERENCES items(id),
   booker_id BIGINT REFERENCES users(id),
+  owner_id BIGINT REFERENCES users(id),
   status VARCHAR(50),
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_booking PRIMARY KEY (id)
 );
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+  item_id BIGINT NOT NULL REFERENCES items(id),
+  last_booking_id BIGINT,
+  last_booker_id BIGINT,
+  last_end_date TIMESTAMP WITHOUT TIME ZONE,
+  next_booking_id BIGINT,
+  next_booker_id BIGINT,
+  next_start_date TIMESTAMP WITHOUT TIME ZONE,
+  CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id)
+);
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGINT NOT NULL,
+  aggregate_type VARCHAR(32) NOT NULL,
+  aggregate_id BIGINT NOT NULL,
+  event_type VARCHAR(64) NOT NULL,
+  payload VARCHAR(4000),
+  created TIMESTAMP WITHOUT TIME ZONE,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP WITHOUT TIME ZONE,
+  last_error VARCHAR(512),
+  dead BOOL NOT NULL DEFAULT FALSE,
+  CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users(id);
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS created TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS seq BIGINT;
 
-DELETE FROM comments;
-ALTER TABLE comments ALTER COLUMN id RESTART WITH 1;
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_next_start ON item_booking_summary (next_start_date);
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created, id);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending_seq ON outbox_events (dead, seq);
 
-DELETE FROM requests;
-ALTER TABLE requests ALTER COLUMN id RESTART WITH 1;
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_end ON bookings (booker_id, status, end_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_end ON bookings (owner_id, end_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_end ON bookings (owner_id, status, end_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
 
+-- Sequences are not restarted: a running application keeps its block of ids in memory
+DELETE FROM outbox_events;
+DELETE FROM comments;
 DELETE FROM bookings;
-ALTER TABLE bookings ALTER COLUMN id RESTART WITH 1;
-
+DELETE FROM item_booking_summary;
 DELETE FROM items;
-ALTER TABLE items ALTER COLUMN id RESTART WITH 1;
-
+DELETE FROM requests;
 DELETE FROM users;
-ALTER TABLE users ALTER COLUMN id RESTART WITH 1;
-
@@ -0,0 +1,246 @@
+package ru.practicum.shareit.booking.controller;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        booker = createUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime end = LocalDateTime.now().plusDays(10).withNano(0);
+        bookingIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // two bookings share the same end so that the id tie-breaker is exercised
+            LocalDateTime bookingEnd = i < 2 ? end : end.minusDays(i);
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .owner(item.getOwner())
+                    .start(bookingEnd.minusHours(1))
+                    .end(bookingEnd)
+                    .status(BookingStatus.WAITING)
+                    .build());
+            bookingIds.add(booking.getId());
+        }
+    }
+
+    @Test
+    void getUserBookingsPagesThroughCursor() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/bookings")
+                    .header("X-Sharer-User-Id", booker.getId())
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            ids.addAll(readIds(result.getResponse().getContentAsString()));
+            cursor = result.getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of(bookingIds.get(1), bookingIds.get(0), bookingIds.get(2), bookingIds.get(3),
+                bookingIds.get(4)), ids);
+    }
+
+    @Test
+    void getItemsOwnerBookingsSupportsOffset() throws Exception {
+        MvcResult result = perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("from", "4")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(List.of(bookingIds.get(4)), readIds(result.getResponse().getContentAsString()));
+        assertNull(result.getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getUserBookingsRejectsInvalidPage() throws Exception {
+        perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("from", "-1")
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+        perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamUserBookingsWritesNdjson() throws Exception {
+        MvcResult result = mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            ids.add(objectMapper.readValue(line, BookingIdDto.class).getId());
+        }
+        assertEquals(List.of(bookingIds.get(1), bookingIds.get(0), bookingIds.get(2), bookingIds.get(3),
+                bookingIds.get(4)), ids);
+    }
+
+    @Test
+    void streamBookingsOfUnknownUserIsNotFound() throws Exception {
+        long unknown = owner.getId() + booker.getId() + 1_000_000;
+        perform(get("/bookings")
+                        .header("X-Sharer-User-Id", unknown)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
+        perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", unknown)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBookingIsNotModifiedUntilBookingChanges() throws Exception {
+        long bookingId = bookingIds.get(0);
+        MvcResult first = perform(get("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        for (User participant : List.of(booker, owner)) {
+            MvcResult notModified = perform(get("/bookings/{bookingId}", bookingId)
+                            .header("X-Sharer-User-Id", participant.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+            assertEquals("", notModified.getResponse().getContentAsString());
+            assertEquals(etag, notModified.getResponse().getHeader(HttpHeaders.ETAG));
+        }
+        perform(get("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", createUser().getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+
+        perform(patch("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+
+        MvcResult changed = perform(get("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(changed.getResponse().getContentAsString().contains("APPROVED"));
+    }
+
+    /**
+     * Handlers complete on the web executor, so the response is only there after the async dispatch.
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private List<Long> readIds(String json) throws Exception {
+        return objectMapper.readValue(json, new TypeReference<List<BookingIdDto>>() {}).stream()
+                .map(BookingIdDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class BookingIdDto {
+
+        private long id;
+
+    }
+
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.repo;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans of H2, which runs the tests. H2 neither reports index-only scans nor uses an index for ordering,
+ * so the plans are checked for the exact index, its range condition and the rows it scans. The partial and
+ * INCLUDE indexes of schema-postgresql.sql are not checked here.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingIndexPlanTest {
+
+    private static final int USERS = 20;
+    private static final int ITEMS = 100;
+    private static final int BOOKINGS = 20_000;
+    private static final Pattern SCAN_COUNT = Pattern.compile("scancount: (\\d+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String userIds;
+    private long userId;
+    private long itemId;
+
+    @BeforeAll
+    void setUp() {
+        String prefix = UUID.randomUUID().toString();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"user", prefix + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "select id from users where email like ? order by id", Long.class, prefix + "%");
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"item", "description", true, userIds.get(i % USERS)});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id) values (?, ?, ?, ?)",
+                items);
+        List<Object[]> itemOwners = new ArrayList<>();
+        this.userIds = joinIds(userIds);
+        jdbcTemplate.query("select id, owner_id from items where owner_id in (" + this.userIds + ") order by id",
+                rs -> {
+                    itemOwners.add(new Object[]{rs.getLong(1), rs.getLong(2)});
+                });
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Object[] item = itemOwners.get(i % ITEMS);
+            LocalDateTime start = now.plusHours(i - BOOKINGS / 2);
+            bookings.add(new Object[]{
+                    Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusHours(2)),
+                    item[0],
+                    userIds.get((i / ITEMS) % USERS),
+                    item[1],
+                    statuses[i % statuses.length].name()});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.execute("analyze");
+
+        userId = userIds.get(0);
+        // every booking of an item has the same status, this item's are approved
+        itemId = (long) itemOwners.get(BookingStatus.APPROVED.ordinal())[0];
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from bookings where owner_id in (" + userIds + ")");
+        jdbcTemplate.update("delete from items where owner_id in (" + userIds + ")");
+        jdbcTemplate.update("delete from users where id in (" + userIds + ")");
+    }
+
+    @Test
+    void bookerStateQueriesUseCompositeIndexes() {
+        // the page of ids is read from the index alone, so H2 prefers it over the foreign key index
+        assertIndexRange("idx_bookings_booker_end", "booker_id = ?1", "b.booker_id = ?", userId);
+        assertIndexRange("idx_bookings_booker_end", "end_date < ?2", "b.booker_id = ? and b.end_date < ?",
+                userId, now());
+        // CURRENT is an interval predicate: the start bound drives the range, the end bound filters it
+        assertIndexUsed("idx_bookings_booker_start", "start_date < ?2",
+                "b.booker_id = ? and b.start_date < ? and b.end_date > ?", userId, now(), now());
+        assertIndexRange("idx_bookings_booker_start", "start_date > ?2", "b.booker_id = ? and b.start_date > ?",
+                userId, now());
+        assertIndexRange("idx_bookings_booker_status_end", "status = ?2", "b.booker_id = ? and b.status = ?",
+                userId, BookingStatus.WAITING.name());
+    }
+
+    @Test
+    void ownerStateQueriesUseDenormalizedOwnerIndexes() {
+        assertIndexRange("idx_bookings_owner_end", "end_date < ?2", "b.owner_id = ? and b.end_date < ?",
+                userId, now());
+        assertIndexRange("idx_bookings_owner_start", "start_date > ?2", "b.owner_id = ? and b.start_date > ?",
+                userId, now());
+        assertIndexRange("idx_bookings_owner_status_end", "status = ?2", "b.owner_id = ? and b.status = ?",
+                userId, BookingStatus.WAITING.name());
+    }
+
+    @Test
+    void itemLookupsUseItemStatusStartIndex() {
+        assertIndexRange("idx_bookings_item_status_start", "start_date > ?3",
+                "b.item_id = ? and b.status = ? and b.start_date > ?", itemId, BookingStatus.APPROVED.name(), now());
+        assertIndexUsed("idx_bookings_item_status_start", "start_date < ?3",
+                "b.item_id = ? and b.status = ? and b.start_date < ? and b.end_date > ?",
+                itemId, BookingStatus.APPROVED.name(), Timestamp.valueOf(LocalDateTime.now().plusDays(1)), now());
+    }
+
+    /**
+     * The index serves the whole predicate: it scans no more rows than match.
+     */
+    private void assertIndexRange(String index, String condition, String where, Object... args) {
+        String plan = assertIndexUsed(index, condition, where, args);
+        Matcher scanCount = SCAN_COUNT.matcher(plan);
+        long matched = jdbcTemplate.queryForObject("select count(*) from bookings b where " + where, Long.class, args);
+        // the scan reads one row past the end of the range
+        assertTrue(matched > 0 && scanCount.find() && Long.parseLong(scanCount.group(1)) <= matched + 1,
+                () -> "Индекс " + index + " при " + matched + " подходящих строках:\n" + plan);
+    }
+
+    private String assertIndexUsed(String index, String condition, String where, Object... args) {
+        String plan = jdbcTemplate.queryForObject("explain analyze select b.id, b.end_date from bookings b where " +
+                where + " order by b.end_date desc, b.id desc", String.class, args).toLowerCase(Locale.ROOT);
+        String scan = plan.substring(plan.indexOf("/*"), plan.indexOf("*/"));
+        assertTrue(scan.startsWith("/* public." + index + ":") && scan.contains(condition),
+                () -> "План без " + index + " по " + condition + ":\n" + plan);
+        return plan;
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private static String joinIds(List<Long> ids) {
+        StringBuilder builder = new StringBuilder();
+        for (Long id : ids) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(id);
+        }
+        return builder.toString();
+    }
+
+}
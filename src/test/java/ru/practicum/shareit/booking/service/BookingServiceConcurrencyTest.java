@@ -0,0 +1,260 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.enums.BookingBatchResult;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repo.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+
+    private static final int ITEMS = 8;
+    private static final int BOOKERS = 6;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Test
+    void concurrentApprovalsNeverDoubleBookAnItem() throws Exception {
+        User owner = createUser();
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(createUser());
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Item> items = new ArrayList<>();
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = createItem(owner);
+            items.add(item);
+            for (int j = 0; j < BOOKERS; j++) {
+                // every booking of an item overlaps with the next one
+                LocalDateTime bookingStart = start.plusHours(j);
+                BookingDto booking = bookingService.addNewBooking(bookers.get(j).getId(), BookingFromUserDto.builder()
+                        .itemId(item.getId())
+                        .start(bookingStart)
+                        .end(bookingStart.plusHours(2))
+                        .build());
+                bookingIds.add(booking.getId());
+            }
+        }
+        Collections.shuffle(bookingIds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Boolean>> approvals = bookingIds.stream()
+                .map(bookingId -> (Callable<Boolean>) () -> approve(owner.getId(), bookingId))
+                .collect(Collectors.toList());
+        List<Future<Boolean>> results = executor.invokeAll(approvals);
+        executor.shutdown();
+        long approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                approved++;
+            }
+        }
+
+        List<Booking> bookings = bookingRepository.findAllById(bookingIds);
+        long approvedInDb = 0;
+        for (Item item : items) {
+            List<Booking> approvedBookings = bookings.stream()
+                    .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                    .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                    .collect(Collectors.toList());
+            for (int i = 0; i < approvedBookings.size(); i++) {
+                for (int j = i + 1; j < approvedBookings.size(); j++) {
+                    assertFalse(overlap(approvedBookings.get(i), approvedBookings.get(j)));
+                }
+            }
+            approvedInDb += approvedBookings.size();
+        }
+        assertEquals(approved, approvedInDb);
+        assertTrue(approved >= ITEMS);
+    }
+
+    @Test
+    void concurrentRepeatedApprovalIsAlreadyApproved() throws Exception {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            LocalDateTime bookingStart = start.plusDays(attempt);
+            long bookingId = bookingService.addNewBooking(booker.getId(), BookingFromUserDto.builder()
+                    .itemId(item.getId())
+                    .start(bookingStart)
+                    .end(bookingStart.plusHours(2))
+                    .build()).getId();
+            CountDownLatch ready = new CountDownLatch(2);
+            Callable<String> approval = () -> {
+                ready.countDown();
+                ready.await();
+                try {
+                    bookingService.updateBooking(owner.getId(), bookingId, "true");
+                    return "approved";
+                } catch (ValidationException e) {
+                    return "already approved";
+                }
+            };
+            List<String> results = new ArrayList<>();
+            for (Future<String> result : executor.invokeAll(List.of(approval, approval))) {
+                results.add(result.get());
+            }
+            Collections.sort(results);
+
+            assertEquals(List.of("already approved", "approved"), results);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void batchApprovalRacingSingleApprovalIsUnchangedNotConflict() throws Exception {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            long bookingId = addBooking(booker, item, start.plusDays(attempt));
+            CountDownLatch ready = new CountDownLatch(2);
+            Callable<String> single = () -> {
+                ready.countDown();
+                ready.await();
+                try {
+                    bookingService.updateBooking(owner.getId(), bookingId, "true");
+                    return "approved";
+                } catch (ValidationException e) {
+                    return "already approved";
+                }
+            };
+            Callable<String> batch = () -> {
+                ready.countDown();
+                ready.await();
+                return bookingService.updateBookings(owner.getId(), List.of(bookingId), "true").get(0)
+                        .getResult().name();
+            };
+            List<String> results = new ArrayList<>();
+            for (Future<String> result : executor.invokeAll(List.of(single, batch))) {
+                results.add(result.get());
+            }
+
+            assertTrue(results.equals(List.of("approved", BookingBatchResult.UNCHANGED.name()))
+                    || results.equals(List.of("already approved", BookingBatchResult.UPDATED.name())), results.toString());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void batchRejectionRacingApprovalLeavesSummaryConsistent() throws Exception {
+        User owner = createUser();
+        User booker = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            Item item = createItem(owner);
+            long bookingId = addBooking(booker, item, start);
+            CountDownLatch ready = new CountDownLatch(2);
+            Callable<Void> approval = () -> {
+                ready.countDown();
+                ready.await();
+                bookingService.updateBooking(owner.getId(), bookingId, "true");
+                return null;
+            };
+            Callable<Void> rejection = () -> {
+                ready.countDown();
+                ready.await();
+                bookingService.updateBookings(owner.getId(), List.of(bookingId), "false");
+                return null;
+            };
+            for (Future<Void> result : executor.invokeAll(List.of(approval, rejection))) {
+                result.get();
+            }
+
+            BookingStatus status = bookingRepository.findById(bookingId).orElseThrow().getStatus();
+            Long nextBookingId = itemBookingSummaryRepository.findById(item.getId())
+                    .map(ItemBookingSummary::getNextBookingId)
+                    .orElse(null);
+            assertEquals(status == BookingStatus.APPROVED ? Long.valueOf(bookingId) : null, nextBookingId,
+                    status.name());
+        }
+        executor.shutdown();
+    }
+
+    private long addBooking(User booker, Item item, LocalDateTime start) {
+        return bookingService.addNewBooking(booker.getId(), BookingFromUserDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build()).getId();
+    }
+
+    private boolean approve(long ownerId, long bookingId) {
+        try {
+            bookingService.updateBooking(ownerId, bookingId, "true");
+            return true;
+        } catch (ConflictException e) {
+            return false;
+        }
+    }
+
+    private boolean overlap(Booking first, Booking second) {
+        return first.getStart().isBefore(second.getEnd()) && second.getStart().isBefore(first.getEnd());
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Item createItem(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+}
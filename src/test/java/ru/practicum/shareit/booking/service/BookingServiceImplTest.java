@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.enums.BookingBatchResult;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingServiceImplTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = createUser();
+        booker = createUser();
+        item = createItem(owner, true);
+    }
+
+    @Test
+    void addNewBookingRunsConstantNumberOfStatements() {
+        statistics.clear();
+        BookingDto booking = bookingService.addNewBooking(booker.getId(), newBooking(item, 1));
+        assertInsertStatements(4);
+
+        assertEquals(item.getId(), booking.getItem().getId());
+        assertEquals(item.getName(), booking.getItem().getName());
+        assertEquals(booker.getId(), booking.getBooker().getId());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+
+        statistics.clear();
+        bookingService.addNewBooking(booker.getId(), newBooking(item, 3));
+        assertInsertStatements(2);
+    }
+
+    @Test
+    void addNewBookingValidatesItem() {
+        Item unavailable = createItem(owner, false);
+
+        assertThrows(NotFoundException.class, () -> bookingService.addNewBooking(owner.getId(), newBooking(item, 1)));
+        assertThrows(ValidationException.class,
+                () -> bookingService.addNewBooking(booker.getId(), newBooking(unavailable, 1)));
+        assertThrows(NotFoundException.class, () -> bookingService.addNewBooking(booker.getId(),
+                BookingFromUserDto.builder()
+                        .itemId(Long.MAX_VALUE)
+                        .start(LocalDateTime.now().plusDays(1))
+                        .end(LocalDateTime.now().plusDays(2))
+                        .build()));
+    }
+
+    @Test
+    void bookingListingsAreReadInOneStatement() {
+        for (int i = 1; i <= 5; i++) {
+            bookingService.addNewBooking(booker.getId(), newBooking(createItem(owner, true), i));
+        }
+        bookingService.getUserBookings(booker.getId(), BookingState.ALL);
+        bookingService.getItemsOwnerBookings(owner.getId(), BookingState.ALL);
+
+        for (BookingState state : BookingState.values()) {
+            statistics.clear();
+            bookingService.getUserBookings(booker.getId(), state);
+            bookingService.getItemsOwnerBookings(owner.getId(), state);
+            assertEquals(2, statistics.getPrepareStatementCount(), state.name());
+            assertEquals(0, statistics.getEntityLoadCount(), state.name());
+        }
+
+        List<BookingDto> bookings = bookingService.getUserBookings(booker.getId(), BookingState.WAITING);
+        assertEquals(5, bookings.size());
+        assertEquals("Дрель", bookings.get(0).getItem().getName());
+        assertEquals(booker.getId(), bookings.get(0).getBooker().getId());
+        assertTrue(bookings.get(0).getEnd().isAfter(bookings.get(1).getEnd()));
+    }
+
+    @Test
+    void updateBookingsApprovesBatchInConstantNumberOfStatements() {
+        long first = bookingService.addNewBooking(booker.getId(), newBooking(item, 1)).getId();
+        long overlapping = bookingService.addNewBooking(booker.getId(), newBooking(item, 1)).getId();
+        long later = bookingService.addNewBooking(booker.getId(), newBooking(item, 3)).getId();
+        long approved = bookingService.addNewBooking(booker.getId(), newBooking(item, 5)).getId();
+        long overlappingApproved = bookingService.addNewBooking(booker.getId(), newBooking(item, 5)).getId();
+        long foreign = bookingService.addNewBooking(owner.getId(), newBooking(createItem(booker, true), 1)).getId();
+        bookingService.updateBooking(owner.getId(), approved, "true");
+
+        statistics.clear();
+        List<BookingBatchResultDto> results = bookingService.updateBookings(owner.getId(),
+                List.of(first, overlapping, later, overlappingApproved, approved, foreign, first), "true");
+        // item lock, owned bookings, approved bookings, status update, batched outbox inserts,
+        // then the item summary read, rebuilt and updated
+        assertInsertStatements(8);
+
+        assertEquals(6, results.size());
+        Map<Long, BookingBatchResult> byId = results.stream()
+                .collect(Collectors.toMap(BookingBatchResultDto::getBookingId, BookingBatchResultDto::getResult));
+        assertEquals(BookingBatchResult.UPDATED, byId.get(first));
+        assertEquals(BookingBatchResult.CONFLICT, byId.get(overlapping));
+        assertEquals(BookingBatchResult.UPDATED, byId.get(later));
+        assertEquals(BookingBatchResult.CONFLICT, byId.get(overlappingApproved));
+        assertEquals(BookingBatchResult.UNCHANGED, byId.get(approved));
+        assertEquals(BookingBatchResult.NOT_FOUND, byId.get(foreign));
+
+        Map<Long, BookingStatus> statuses = bookingService.getItemsOwnerBookings(owner.getId(), BookingState.ALL)
+                .stream()
+                .collect(Collectors.toMap(BookingDto::getId, BookingDto::getStatus));
+        assertEquals(BookingStatus.APPROVED, statuses.get(first));
+        assertEquals(BookingStatus.WAITING, statuses.get(overlapping));
+        assertEquals(BookingStatus.APPROVED, statuses.get(later));
+        assertEquals(BookingStatus.WAITING, statuses.get(overlappingApproved));
+
+        assertThrows(ValidationException.class, () -> bookingService.updateBookings(owner.getId(), List.of(), "true"));
+        assertThrows(ValidationException.class,
+                () -> bookingService.updateBookings(owner.getId(), List.of(first), "maybe"));
+    }
+
+    /**
+     * Booking and outbox ids come from pooled sequences, so an insert may also fetch the next block of each.
+     */
+    private void assertInsertStatements(long expected) {
+        long prepared = statistics.getPrepareStatementCount();
+        assertTrue(prepared >= expected && prepared <= expected + 2, "prepared statements: " + prepared);
+    }
+
+    private BookingFromUserDto newBooking(Item item, int startInDays) {
+        LocalDateTime start = LocalDateTime.now().plusDays(startInDays);
+        return BookingFromUserDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Item createItem(User owner, boolean available) {
+        return itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(available)
+                .owner(owner)
+                .build());
+    }
+
+}
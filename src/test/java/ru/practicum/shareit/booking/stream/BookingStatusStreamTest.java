@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingStatusStreamTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BookingStatusStream bookingStatusStream;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void decisionsArePushedToBookerAndOwnerAfterCommit() throws Exception {
+        User owner = createUser();
+        User booker = createUser();
+        User stranger = createUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("Байдарка")
+                .description("Двухместная байдарка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = List.of(createBooking(item, booker, start), createBooking(item, booker, start.plusDays(2)));
+        MockHttpServletResponse bookerStream = subscribe(booker);
+        MockHttpServletResponse ownerStream = subscribe(owner);
+        MockHttpServletResponse strangerStream = subscribe(stranger);
+
+        bookingService.updateBooking(owner.getId(), bookings.get(0).getId(), "true");
+        bookingService.updateBookings(owner.getId(), List.of(bookings.get(1).getId()), "false");
+
+        String approved = "\"bookingId\":" + bookings.get(0).getId();
+        String rejected = "\"bookingId\":" + bookings.get(1).getId();
+        for (MockHttpServletResponse stream : List.of(bookerStream, ownerStream)) {
+            String events = awaitContent(stream, rejected);
+            assertTrue(events.contains("event:" + BookingStatusStream.EVENT_NAME), events);
+            assertTrue(events.indexOf(approved) < events.indexOf(rejected), events);
+            assertTrue(events.contains("\"status\":\"APPROVED\""), events);
+            assertTrue(events.contains("\"status\":\"REJECTED\""), events);
+        }
+        assertEquals("", strangerStream.getContentAsString());
+    }
+
+    @Test
+    void oldestSubscriptionIsClosedOverUserLimit() {
+        User user = createUser();
+        for (int i = 0; i < 6; i++) {
+            bookingStatusStream.subscribe(user.getId());
+        }
+
+        assertEquals(4, bookingStatusStream.subscriberCount(user.getId()));
+    }
+
+    private MockHttpServletResponse subscribe(User user) throws Exception {
+        return mvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Booking createBooking(Item item, User booker, LocalDateTime start) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .owner(item.getOwner())
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.datasource.read-your-writes-ms=300")
+class ReplicaDataSourceConfigTest {
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @Test
+    void readOnlyTransactionsBorrowFromReplicaPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            userRepository.findAll();
+            assertEquals(1, replicaDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            String name = UUID.randomUUID().toString();
+            userRepository.saveAndFlush(User.builder().name(name).email(name + "@mail.ru").build());
+            assertEquals(0, replicaDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(1, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+    }
+
+    @Test
+    void writerReadsFromPrimaryUntilWindowCloses() throws InterruptedException {
+        long writerId = 1_000_001L;
+        long otherId = 1_000_002L;
+        try {
+            readYourWritesWindow.bind(writerId);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                String name = UUID.randomUUID().toString();
+                userRepository.saveAndFlush(User.builder().name(name).email(name + "@mail.ru").build());
+            });
+            assertEquals(ReadOnlyRoutingDataSource.Target.PRIMARY, readOnlyTarget());
+
+            readYourWritesWindow.bind(otherId);
+            assertEquals(ReadOnlyRoutingDataSource.Target.REPLICA, readOnlyTarget());
+
+            Thread.sleep(500);
+            readYourWritesWindow.bind(writerId);
+            assertEquals(ReadOnlyRoutingDataSource.Target.REPLICA, readOnlyTarget());
+        } finally {
+            readYourWritesWindow.clear();
+        }
+    }
+
+    private ReadOnlyRoutingDataSource.Target readOnlyTarget() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            userRepository.findAll();
+            return replicaDataSource.getHikariPoolMXBean().getActiveConnections() == 1
+                    ? ReadOnlyRoutingDataSource.Target.REPLICA
+                    : ReadOnlyRoutingDataSource.Target.PRIMARY;
+        });
+    }
+
+    @Test
+    void bothPoolsPublishSaturationMetrics() {
+        for (String pool : new String[]{"shareit-primary", "shareit-replica"}) {
+            assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.idle").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.usage").tag("pool", pool).timer(), pool);
+        }
+        assertEquals(10000, primaryDataSource.getLeakDetectionThreshold());
+        assertEquals(10000, replicaDataSource.getLeakDetectionThreshold());
+        assertTrue(replicaDataSource.isReadOnly());
+    }
+
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item.availability;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ItemAvailabilityTimelineTest {
+
+    @Autowired
+    private ItemAvailabilityTimeline itemAvailabilityTimeline;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bookingDecisionsUpdateFreeIntervalsServedWithoutDatabase() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime base = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        addBooking(booker, item, base.plusDays(1), base.plusDays(2));
+        long approved = addBooking(booker, item, base.plusDays(3), base.plusDays(4));
+        addBooking(booker, item, base.plusDays(3).plusHours(12), base.plusDays(5));
+        long rejected = addBooking(booker, item, base.plusDays(6), base.plusDays(7));
+        bookingService.updateBooking(owner.getId(), approved, "true");
+        bookingService.updateBooking(owner.getId(), rejected, "false");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<AvailabilityIntervalDto> free = itemService.getAvailability(item.getId(), base, base.plusDays(8));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(List.of(
+                interval(base, base.plusDays(1)),
+                interval(base.plusDays(2), base.plusDays(3)),
+                interval(base.plusDays(5), base.plusDays(8))), free);
+        assertEquals(List.of(), itemService.getAvailability(item.getId(), base.plusDays(3), base.plusDays(5)));
+    }
+
+    @Test
+    void warmUpLoadsOnlyCurrentBusyBookings() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime base = now.plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        saveBooking(item, booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(item, booker, base.plusDays(1), base.plusDays(2), BookingStatus.APPROVED);
+        saveBooking(item, booker, base.plusDays(2), base.plusDays(3), BookingStatus.WAITING);
+        saveBooking(item, booker, base.plusDays(4), base.plusDays(5), BookingStatus.REJECTED);
+
+        itemAvailabilityTimeline.afterSingletonsInstantiated();
+
+        assertEquals(List.of(
+                interval(base, base.plusDays(1)),
+                interval(base.plusDays(3), base.plusDays(6))),
+                itemAvailabilityTimeline.getFreeIntervals(item.getId(), base, base.plusDays(6)));
+    }
+
+    private long addBooking(User booker, Item item, LocalDateTime start, LocalDateTime end) {
+        return bookingService.addNewBooking(booker.getId(), BookingFromUserDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    private AvailabilityIntervalDto interval(LocalDateTime start, LocalDateTime end) {
+        return AvailabilityIntervalDto.builder()
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Item createItem(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Палатка")
+                .description("Четырехместная палатка")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private void saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .owner(item.getOwner())
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+}
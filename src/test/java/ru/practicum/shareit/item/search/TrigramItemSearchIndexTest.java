@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.search.backend=memory")
+class TrigramItemSearchIndexTest {
+
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void itemAddedWhileAnotherLeavesTheSameTrigramsIsFound() throws Exception {
+        assertTrue(itemSearchIndex instanceof TrigramItemSearchIndex);
+        String name = UUID.randomUUID().toString();
+        User owner = userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int round = 0; round < ROUNDS; round++) {
+            String word = "щ" + UUID.randomUUID().toString().substring(0, 8);
+            Item leaving = itemRepository.save(createItem(owner, word));
+            itemSearchIndex.index(leaving);
+            Item added = itemRepository.save(createItem(owner, word));
+            CountDownLatch ready = new CountDownLatch(2);
+            Callable<Void> leave = () -> {
+                ready.countDown();
+                ready.await();
+                leaving.setName("пусто");
+                itemSearchIndex.index(leaving);
+                return null;
+            };
+            Callable<Void> add = () -> {
+                ready.countDown();
+                ready.await();
+                itemSearchIndex.index(added);
+                return null;
+            };
+            for (Future<Void> result : executor.invokeAll(List.of(leave, add))) {
+                result.get();
+            }
+
+            List<Long> found = itemSearchIndex.search(word, null, null, 0, 10).stream()
+                    .map(ItemDto::getId)
+                    .collect(Collectors.toList());
+            assertTrue(found.contains(added.getId()), word);
+        }
+        executor.shutdown();
+    }
+
+    private Item createItem(User owner, String word) {
+        return Item.builder()
+                .name(word)
+                .description("Вещь")
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+}
@@ -0,0 +1,419 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSnapshot;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repo.CommentRepository;
+import ru.practicum.shareit.item.repo.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemServiceImplTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getOwnerItemsRunsConstantNumberOfStatements() {
+        User smallOwner = createUser();
+        User bigOwner = createUser();
+        User booker = createUser();
+        List<Long> itemIds = new ArrayList<>(createItems(smallOwner, booker, 2));
+        itemIds.addAll(createItems(bigOwner, booker, 30));
+        // bookings are saved past the service here, so the summaries are built as a booking decision would
+        transactionTemplate.executeWithoutResult(status -> itemBookingSummaryService.refresh(itemIds));
+
+        statistics.clear();
+        assertEquals(2, itemService.getOwnerItems(smallOwner.getId()).size());
+        long smallOwnerStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        assertEquals(30, itemService.getOwnerItems(bigOwner.getId()).size());
+        long bigOwnerStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(3, smallOwnerStatements);
+        assertEquals(smallOwnerStatements, bigOwnerStatements);
+    }
+
+    @Test
+    void importItemsInsertsInJdbcBatches() {
+        User owner = createUser();
+        List<ItemDto> items = IntStream.range(0, 1200)
+                .mapToObj(i -> ItemDto.builder()
+                        .name("Стремянка " + i)
+                        .description("Алюминиевая стремянка")
+                        .available(true)
+                        .build())
+                .collect(Collectors.toList());
+
+        statistics.clear();
+        List<ItemDto> imported = itemService.importItems(owner.getId(), items);
+        long statements = statistics.getPrepareStatementCount();
+
+        // one insert batch and at most one id block per 50 rows instead of a round trip per row
+        assertTrue(statements <= 2 * 1200 / 50 + 2, "prepared statements: " + statements);
+        assertEquals(1200, imported.size());
+        assertEquals(1200, imported.stream().map(ItemDto::getId).distinct().count());
+        assertEquals(1200, itemService.getOwnerItems(owner.getId()).size());
+        assertEquals(1, itemService.search(owner.getId(), "Стремянка 1199", 0, 10).size());
+    }
+
+    @Test
+    void getOwnerItemsReturnsLastAndNextBookingsAndComments() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        Item emptyItem = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        createBooking(item, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        Booking last = createBooking(item, booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        createBooking(item, booker, now.minusDays(1), now.minusHours(1), BookingStatus.REJECTED);
+        Booking next = createBooking(item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        createBooking(item, booker, now.plusDays(5), now.plusDays(6), BookingStatus.APPROVED);
+        createComment(item, booker);
+
+        List<ItemDto> items = itemService.getOwnerItems(owner.getId());
+
+        ItemDto itemDto = items.stream().filter(dto -> dto.getId() == item.getId()).findFirst().orElseThrow();
+        assertEquals(last.getId(), itemDto.getLastBooking().getId());
+        assertEquals(booker.getId(), itemDto.getLastBooking().getBookerId());
+        assertEquals(next.getId(), itemDto.getNextBooking().getId());
+        assertEquals(1, itemDto.getComments().size());
+        assertEquals(booker.getName(), itemDto.getComments().get(0).getAuthorName());
+
+        ItemDto emptyItemDto = items.stream().filter(dto -> dto.getId() == emptyItem.getId()).findFirst().orElseThrow();
+        assertNull(emptyItemDto.getLastBooking());
+        assertNull(emptyItemDto.getNextBooking());
+        assertEquals(0, emptyItemDto.getComments().size());
+    }
+
+    @Test
+    void bookingDecisionsRefreshSummaryReadByGetItem() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = createBooking(item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        bookingService.updateBooking(owner.getId(), booking.getId(), "true");
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(booking.getId(), summary.getNextBookingId());
+        assertEquals(booker.getId(), summary.getNextBookerId());
+
+        itemService.findItem(item.getId());
+        statistics.clear();
+        ItemDto itemDto = itemService.getItem(owner.getId(), item.getId());
+        // cached item, one summary row and the comments
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertNull(itemDto.getLastBooking());
+        assertEquals(booking.getId(), itemDto.getNextBooking().getId());
+
+        bookingService.updateBookings(owner.getId(), List.of(booking.getId()), "false");
+
+        assertNull(itemService.getItem(owner.getId(), item.getId()).getNextBooking());
+    }
+
+    @Test
+    void rollForwardMovesStartedBookingToLast() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = createBooking(item, booker, now.minusHours(1), now.plusDays(1), BookingStatus.APPROVED);
+        itemBookingSummaryRepository.save(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(started.getId())
+                .nextBookerId(booker.getId())
+                .nextStart(started.getStart())
+                .build());
+
+        // outdated row is not served, the item is answered from the bookings until the row is rolled forward
+        ItemDto itemDto = itemService.getItem(owner.getId(), item.getId());
+        assertEquals(started.getId(), itemDto.getLastBooking().getId());
+        assertNull(itemDto.getNextBooking());
+
+        itemBookingSummaryService.rollForward();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(started.getId(), summary.getLastBookingId());
+        assertEquals(bookingRepository.findById(started.getId()).orElseThrow().getEnd(), summary.getLastEnd());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getNextStart());
+    }
+
+    @Test
+    void searchFollowsItemChangesAndRanksNameMatchesFirst() {
+        User owner = createUser();
+        // the tail is never hex, so the two-letter suffix search cannot hit numbered items of other tests
+        String word = UUID.randomUUID().toString().substring(0, 6) + "qz";
+        ItemDto inDescription = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name("Отвертка")
+                .description("Похожа на " + word.toUpperCase())
+                .available(true)
+                .build());
+        ItemDto inName = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name("Дрель " + word)
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        ItemDto unavailable = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name(word)
+                .description("Сломана")
+                .available(false)
+                .build());
+
+        assertEquals(List.of(inName.getId(), inDescription.getId()), searchIds(word, 0, 10));
+        assertEquals(List.of(inDescription.getId()), searchIds(word, 1, 10));
+        assertEquals(List.of(inName.getId()), searchIds(word, 0, 1));
+        assertEquals(List.of(inName.getId(), inDescription.getId()), searchIds(word.substring(6), 0, 10));
+
+        itemService.updateItem(owner.getId(), inDescription.getId(), ItemDto.builder()
+                .description("Обычная отвертка")
+                .build());
+        itemService.updateItem(owner.getId(), unavailable.getId(), ItemDto.builder()
+                .available(true)
+                .build());
+
+        assertEquals(List.of(unavailable.getId(), inName.getId()), searchIds(word, 0, 10));
+        assertEquals(0, itemService.search(owner.getId(), " ", 0, 10).size());
+    }
+
+    @Test
+    void searchWithDatesSkipsItemsBookedInPeriod() {
+        User owner = createUser();
+        User booker = createUser();
+        // a suffix of its own, the ranking test searches by its "qz" suffix alone
+        String word = UUID.randomUUID().toString().substring(0, 6) + "wv";
+        // whole seconds, so the stored bookings touch the period exactly
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(2);
+        ItemDto free = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name(word + " свободная")
+                .description("Палатка")
+                .available(true)
+                .build());
+        ItemDto waiting = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name(word + " ожидает")
+                .description("Палатка")
+                .available(true)
+                .build());
+        ItemDto approved = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name(word + " занята")
+                .description("Палатка")
+                .available(true)
+                .build());
+        ItemDto rejected = itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name(word + " отклонена")
+                .description("Палатка")
+                .available(true)
+                .build());
+        addBooking(booker, waiting.getId(), start.minusDays(1), start.plusDays(1));
+        bookingService.updateBooking(owner.getId(),
+                addBooking(booker, approved.getId(), end.minusHours(1), end.plusDays(1)), "true");
+        bookingService.updateBooking(owner.getId(),
+                addBooking(booker, rejected.getId(), start, end), "false");
+        // touching the period does not make the item busy
+        addBooking(booker, free.getId(), end, end.plusDays(1));
+
+        List<Long> expected = List.of(free.getId(), rejected.getId());
+        assertEquals(expected, itemService.search(0, word, start, end, 0, 10).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(expected, itemRepository.searchFree(word, start, end,
+                        List.of(BookingStatus.WAITING, BookingStatus.APPROVED), 0, 10).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(rejected.getId()), itemService.search(0, word, start, end, 1, 10).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(4, searchIds(word, 0, 10).size());
+        assertThrows(ValidationException.class, () -> itemService.search(0, word, start, null, 0, 10));
+        assertThrows(ValidationException.class, () -> itemService.search(0, word, end, start, 0, 10));
+    }
+
+    private long addBooking(User booker, long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingService.addNewBooking(booker.getId(), BookingFromUserDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    @Test
+    void itemTagFollowsItemCommentsAndOwnerBookings() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        createBooking(item, booker, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking next = createBooking(item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        statistics.clear();
+        String tag = itemService.getItemTag(booker.getId(), item.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertNotEquals(tag, itemService.getItemTag(owner.getId(), item.getId()));
+
+        itemService.addComment(booker.getId(), item.getId(), CommentDto.builder().text("Отличная вещь").build());
+        String commented = itemService.getItemTag(booker.getId(), item.getId());
+        assertNotEquals(tag, commented);
+
+        // the comment shows its author's name
+        userService.update(booker.getId(), UserDto.builder().name("Новое имя").build());
+        String renamed = itemService.getItemTag(booker.getId(), item.getId());
+        assertNotEquals(commented, renamed);
+
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().description("Дрель с ударом").build());
+        String updated = itemService.getItemTag(booker.getId(), item.getId());
+        assertNotEquals(renamed, updated);
+
+        String ownerTag = itemService.getItemTag(owner.getId(), item.getId());
+        bookingService.updateBooking(owner.getId(), next.getId(), "true");
+        assertNotEquals(ownerTag, itemService.getItemTag(owner.getId(), item.getId()));
+        assertEquals(updated, itemService.getItemTag(booker.getId(), item.getId()));
+    }
+
+    @Test
+    void itemLookupIsCachedAndEvictedOnUpdate() {
+        User owner = createUser();
+        Item item = createItem(owner);
+        itemService.findItem(item.getId());
+
+        statistics.clear();
+        ItemSnapshot cached = itemService.findItem(item.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(item.getName(), cached.getName());
+        assertEquals(owner.getId(), cached.getOwnerId());
+
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().name("Перфоратор").build());
+
+        assertEquals("Перфоратор", itemService.getItem(owner.getId(), item.getId()).getName());
+        assertEquals("Перфоратор", itemService.findItem(item.getId()).getName());
+    }
+
+    private List<Long> searchIds(String text, int from, int size) {
+        return itemService.search(0, text, from, size).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> createItems(User owner, User booker, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = createItem(owner);
+            itemIds.add(item.getId());
+            createBooking(item, booker, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+            createBooking(item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+            createComment(item, booker);
+        }
+        return itemIds;
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Item createItem(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private Booking createBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .owner(item.getOwner())
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private void createComment(Item item, User author) {
+        commentRepository.save(Comment.builder()
+                .text("Отличная вещь")
+                .item(item)
+                .author(author)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RequestMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email(UUID.randomUUID() + "@mail.ru")
+                .build());
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(Item.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+    }
+
+    @Test
+    void recordsStatementsAndLatencyPerEndpoint() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        DistributionSummary statements = meterRegistry.summary("shareit.http.sql.statements",
+                "method", "GET", "uri", "/items");
+        long requestsBefore = statements.count();
+        double statementsBefore = statements.totalAmount();
+        long preparedBefore = statistics.getPrepareStatementCount();
+
+        perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(requestsBefore + 1, statements.count());
+        assertEquals(statistics.getPrepareStatementCount() - preparedBefore,
+                (long) (statements.totalAmount() - statementsBefore));
+
+        Timer latency = meterRegistry.find("http.server.requests").tag("uri", "/items").timer();
+        assertNotNull(latency);
+        assertTrue(latency.count() > 0);
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+    }
+
+    @Test
+    void recordsTransactionDuration() throws Exception {
+        long transactionsBefore = transactions();
+
+        perform(post("/items")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Пила\", \"description\": \"Ручная пила\", \"available\": true}"))
+                .andExpect(status().isOk());
+
+        assertTrue(transactions() > transactionsBefore);
+    }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        return mvc.perform(asyncDispatch(mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+    }
+
+    private long transactions() {
+        return meterRegistry.find("shareit.transactions").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+}
@@ -0,0 +1,202 @@
+package ru.practicum.shareit.outbox.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingFromUserDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.enums.OutboxEventType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.outbox.dto.OutboxMessage;
+import ru.practicum.shareit.outbox.repo.OutboxEventRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.outbox.retry-backoff-ms=50")
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingConsumer recordingConsumer;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        recordingConsumer.delivered.clear();
+        recordingConsumer.failOnce.clear();
+    }
+
+    @Test
+    void failedEventHoldsBackLaterEventsOfItsAggregateUntilRetried() throws InterruptedException {
+        long failing = 1_000_000 + System.nanoTime() % 1_000_000;
+        long other = failing + 1;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            outboxService.append(OutboxEventType.BOOKING_CREATED, failing, event(failing, BookingStatus.WAITING));
+            outboxService.append(OutboxEventType.BOOKING_STATUS_CHANGED, failing, event(failing, BookingStatus.APPROVED));
+            outboxService.append(OutboxEventType.BOOKING_CREATED, other, event(other, BookingStatus.WAITING));
+        });
+        recordingConsumer.failOnce.add(failing);
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(List.of(other + ":" + OutboxEventType.BOOKING_CREATED), delivered(failing, other));
+        assertEquals(2, outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId() == failing)
+                .count());
+
+        Thread.sleep(100);
+        outboxDispatcher.dispatch();
+
+        assertEquals(List.of(
+                other + ":" + OutboxEventType.BOOKING_CREATED,
+                failing + ":" + OutboxEventType.BOOKING_CREATED,
+                failing + ":" + OutboxEventType.BOOKING_STATUS_CHANGED), delivered(failing, other));
+        assertTrue(outboxEventRepository.findAll().stream()
+                .noneMatch(event -> event.getAggregateId() == failing || event.getAggregateId() == other));
+    }
+
+    @Test
+    void eventsOfAnAggregateAreDeliveredInWriteOrderNotIdOrder() {
+        long bookingId = 3_000_000 + System.nanoTime() % 1_000_000;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // another node writes first with an id from a later block of the pooled sequence
+        transaction.executeWithoutResult(status -> entityManager.createNativeQuery("insert into outbox_events " +
+                        "(id, aggregate_type, aggregate_id, event_type, payload, created, attempts, next_attempt_at, dead) " +
+                        "values (?, 'BOOKING', ?, 'BOOKING_CREATED', '{}', ?, 0, ?, false)")
+                .setParameter(1, Long.MAX_VALUE - bookingId)
+                .setParameter(2, bookingId)
+                .setParameter(3, LocalDateTime.now())
+                .setParameter(4, LocalDateTime.now())
+                .executeUpdate());
+        transaction.executeWithoutResult(status -> outboxService.append(OutboxEventType.BOOKING_STATUS_CHANGED,
+                bookingId, event(bookingId, BookingStatus.APPROVED)));
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(List.of(
+                bookingId + ":" + OutboxEventType.BOOKING_CREATED,
+                bookingId + ":" + OutboxEventType.BOOKING_STATUS_CHANGED), delivered(bookingId));
+    }
+
+    @Test
+    void bookingIsWrittenToOutboxInItsTransaction() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("Велосипед")
+                .description("Горный велосипед")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addNewBooking(booker.getId(), BookingFromUserDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build()).getId();
+        bookingService.updateBooking(owner.getId(), bookingId, "true");
+
+        outboxDispatcher.dispatch();
+
+        List<OutboxMessage> messages = recordingConsumer.delivered.stream()
+                .filter(message -> message.getAggregateId() == bookingId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_STATUS_CHANGED),
+                messages.stream().map(OutboxMessage::getEventType).collect(Collectors.toList()));
+        assertTrue(messages.get(1).getPayload().contains("\"status\":\"APPROVED\""));
+        assertFalse(outboxEventRepository.existsById(messages.get(0).getId()));
+    }
+
+    private List<String> delivered(long... aggregateIds) {
+        Set<Long> ids = Arrays.stream(aggregateIds).boxed().collect(Collectors.toSet());
+        return recordingConsumer.delivered.stream()
+                .filter(message -> ids.contains(message.getAggregateId()))
+                .map(message -> message.getAggregateId() + ":" + message.getEventType())
+                .collect(Collectors.toList());
+    }
+
+    private BookingStatusChangedEvent event(long bookingId, BookingStatus status) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(bookingId)
+                .status(status)
+                .build();
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    static class RecordingConsumer implements OutboxConsumer {
+
+        private final Queue<OutboxMessage> delivered = new ConcurrentLinkedQueue<>();
+        private final Set<Long> failOnce = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void consume(OutboxMessage message) {
+            if (failOnce.remove(message.getAggregateId())) {
+                throw new IllegalStateException("получатель недоступен");
+            }
+            delivered.add(message);
+        }
+
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+
+    }
+
+}
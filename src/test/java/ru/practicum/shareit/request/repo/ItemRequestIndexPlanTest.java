@@ -0,0 +1,100 @@
+package ru.practicum.shareit.request.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemRequestIndexPlanTest {
+
+    private static final int USERS = 20;
+    private static final int REQUESTS = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long requestId;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = UUID.randomUUID().toString();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"user", prefix + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "select id from users where email like ? order by id", Long.class, prefix + "%");
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(new Object[]{prefix, userIds.get(i % USERS), Timestamp.valueOf(now.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (description, requestor_id, created) values (?, ?, ?)",
+                requests);
+        List<Long> requestIds = jdbcTemplate.queryForList(
+                "select id from requests where description = ? order by id", Long.class, prefix);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i += 10) {
+            items.add(new Object[]{"item", "description", true, userIds.get(0), requestIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.execute("analyze");
+
+        userId = userIds.get(0);
+        requestId = requestIds.get(0);
+    }
+
+    // H2 indexes foreign keys by itself and prefers those, so the requestor and request lookups
+    // only have to avoid a full scan here; PostgreSQL gets the composite indexes from schema.sql
+    @Test
+    void ownFeedUsesRequestorIndex() {
+        assertIndexLookup("requestor_id = ?1",
+                "select * from requests r where r.requestor_id = ? and (r.created < ? or (r.created = ? and r.id < ?)) " +
+                        "order by r.created desc, r.id desc limit 20", userId, now(), now(), requestId);
+    }
+
+    @Test
+    void otherUsersFeedIsContinuedFromCreatedIndex() {
+        assertIndexUsed("idx_requests_created",
+                "select * from requests r where r.requestor_id <> ? and r.created < ? " +
+                        "order by r.created desc, r.id desc limit 20", userId, now());
+    }
+
+    @Test
+    void answersAreReadByRequestIndex() {
+        assertIndexLookup("request_id in(?1, ?2)",
+                "select * from items i where i.request_id in (?, ?) order by i.id", requestId, requestId + 1);
+    }
+
+    private void assertIndexUsed(String index, String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, args);
+        assertTrue(plan != null && plan.toLowerCase(Locale.ROOT).contains(index), () -> "План без " + index + ":\n" + plan);
+    }
+
+    private void assertIndexLookup(String condition, String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, args);
+        assertTrue(plan != null && plan.toLowerCase(Locale.ROOT).contains(condition)
+                && !plan.toLowerCase(Locale.ROOT).contains("tablescan"), () -> "План без индекса по " + condition + ":\n" + plan);
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+}
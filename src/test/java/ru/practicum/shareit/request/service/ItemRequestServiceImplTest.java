@@ -0,0 +1,132 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemRequestServiceImplTest {
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void otherRequestsArePagedByCursorWithAnswersInOneQuery() {
+        User requestor = createUser();
+        User reader = createUser();
+        User owner = createUser();
+        List<Long> requested = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requested.add(0, addRequest(requestor, "Нужна дрель " + i).getId());
+        }
+        long ownRequest = addRequest(reader, "Нужна стремянка").getId();
+        ItemDto answer = addItem(owner, requested.get(0));
+        addItem(owner, requested.get(0));
+        addItem(owner, requested.get(3));
+
+        List<ItemRequestDto> firstPage = itemRequestService.getOtherRequests(reader.getId(), null, 0, 2);
+        assertEquals(requested.subList(0, 2), ids(firstPage));
+        assertEquals(2, firstPage.get(0).getItems().size());
+        assertEquals(answer.getId(), firstPage.get(0).getItems().get(0).getId());
+        assertEquals(requested.get(0), firstPage.get(0).getItems().get(0).getRequestId());
+        assertTrue(firstPage.get(1).getItems().isEmpty());
+
+        ItemRequestDto last = firstPage.get(1);
+        statistics.clear();
+        List<ItemRequestDto> secondPage = itemRequestService.getOtherRequests(reader.getId(),
+                new PageCursor(last.getCreated(), last.getId()), 0, 2);
+        // the page of requests and all of its answers, the reader comes from the cache
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(requested.subList(2, 4), ids(secondPage));
+        assertEquals(1, secondPage.get(1).getItems().size());
+
+        List<Long> ownRequests = ids(itemRequestService.getOwnRequests(reader.getId(), null, 0, Integer.MAX_VALUE));
+        assertEquals(List.of(ownRequest), ownRequests);
+        assertFalse(ids(itemRequestService.getOtherRequests(reader.getId(), null, 0, 100)).contains(ownRequest));
+    }
+
+    @Test
+    void requestIsReadWithAnswersAndUnknownIdsAreNotFound() {
+        User requestor = createUser();
+        User owner = createUser();
+        long requestId = addRequest(requestor, "Нужен перфоратор").getId();
+        ItemDto answer = addItem(owner, requestId);
+
+        ItemRequestDto request = itemRequestService.getRequest(owner.getId(), requestId);
+
+        assertEquals("Нужен перфоратор", request.getDescription());
+        assertEquals(List.of(answer.getId()), request.getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertThrows(NotFoundException.class, () -> itemRequestService.getRequest(owner.getId(), requestId + 1000));
+        assertThrows(NotFoundException.class, () -> addItem(owner, requestId + 1000));
+        assertThrows(ValidationException.class, () -> addRequest(requestor, " "));
+        assertThrows(ValidationException.class,
+                () -> itemRequestService.getOtherRequests(requestor.getId(), null, -1, 10));
+    }
+
+    private List<Long> ids(List<ItemRequestDto> requests) {
+        return requests.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private ItemRequestDto addRequest(User requestor, String description) {
+        return itemRequestService.addNewRequest(requestor.getId(), ItemRequestDto.builder()
+                .description(description)
+                .build());
+    }
+
+    private ItemDto addItem(User owner, long requestId) {
+        return itemService.addNewItem(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .requestId(requestId)
+                .build());
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserServiceImplTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void updateDoesNotDependOnNumberOfUsers() {
+        UserDto user = userService.create(newUser());
+        long fewUsersStatements = countUpdateStatements(user);
+        long fewUsersLoads = statistics.getEntityLoadCount();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = UUID.randomUUID().toString();
+            users.add(User.builder().name(name).email(name + "@mail.ru").build());
+        }
+        userRepository.saveAll(users);
+        long manyUsersStatements = countUpdateStatements(user);
+
+        assertEquals(fewUsersStatements, manyUsersStatements);
+        assertEquals(fewUsersLoads, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void updateWithTakenEmailIsConflict() {
+        UserDto first = userService.create(newUser());
+        UserDto second = userService.create(newUser());
+
+        assertThrows(ConflictException.class,
+                () -> userService.update(second.getId(), UserDto.builder().email(first.getEmail()).build()));
+        assertEquals(second.getEmail(), userService.getUser(second.getId()).getEmail());
+    }
+
+    @Test
+    void updateWithOwnEmailIsAllowed() {
+        UserDto user = userService.create(newUser());
+
+        UserDto updated = userService.update(user.getId(), UserDto.builder()
+                .name("Новое имя")
+                .email(user.getEmail())
+                .build());
+
+        assertEquals("Новое имя", updated.getName());
+    }
+
+    @Test
+    void createWithTakenEmailIsConflict() {
+        UserDto user = userService.create(newUser());
+
+        assertThrows(ConflictException.class,
+                () -> userService.create(UserDto.builder().name("Другой").email(user.getEmail()).build()));
+    }
+
+    @Test
+    void importUsersIsAllOrNothing() {
+        List<UserDto> users = IntStream.range(0, 120)
+                .mapToObj(i -> newUser())
+                .collect(Collectors.toList());
+
+        List<UserDto> imported = userService.importUsers(users);
+        assertEquals(120, imported.size());
+        assertEquals(users.get(119).getEmail(), userService.getUser(imported.get(119).getId()).getEmail());
+
+        UserDto fresh = newUser();
+        assertThrows(ConflictException.class, () -> userService.importUsers(List.of(fresh, users.get(0))));
+        assertEquals(0, userRepository.findAll().stream()
+                .filter(user -> user.getEmail().equals(fresh.getEmail()))
+                .count());
+    }
+
+    @Test
+    void userTagIsReadByVersionAndChangesOnUpdate() {
+        UserDto user = userService.create(newUser());
+
+        statistics.clear();
+        String tag = userService.getUserTag(user.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(tag, userService.getUserTag(user.getId()));
+
+        userService.update(user.getId(), UserDto.builder().name("Новое имя").build());
+
+        assertNotEquals(tag, userService.getUserTag(user.getId()));
+        userService.deleteUser(user.getId());
+        assertThrows(NotFoundException.class, () -> userService.getUserTag(user.getId()));
+    }
+
+    @Test
+    void getUserIsCachedAndInvalidatedOnChanges() {
+        UserDto user = userService.create(newUser());
+        userService.getUser(user.getId());
+
+        statistics.clear();
+        userService.getUser(user.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        userService.update(user.getId(), UserDto.builder().name("Новое имя").build());
+        statistics.clear();
+        assertEquals("Новое имя", userService.getUser(user.getId()).getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        userService.deleteUser(user.getId());
+        assertThrows(NotFoundException.class, () -> userService.getUser(user.getId()));
+
+        double hits = meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter()
+                .count();
+        assertTrue(hits >= 2);
+    }
+
+    private long countUpdateStatements(UserDto user) {
+        statistics.clear();
+        String name = UUID.randomUUID().toString();
+        userService.update(user.getId(), UserDto.builder().email(name + "@mail.ru").build());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserDto newUser() {
+        String name = UUID.randomUUID().toString();
+        return UserDto.builder().name(name).email(name + "@mail.ru").build();
+    }
+
+}
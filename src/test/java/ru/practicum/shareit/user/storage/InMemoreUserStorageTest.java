@@ -0,0 +1,157 @@
+package ru.practicum.shareit.user.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles({"test", "in-memory"})
+class InMemoreUserStorageTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void profileSelectsMemoryStorageBehindUserService() {
+        assertInstanceOf(InMemoreUserStorage.class, userStorage);
+
+        UserDto user = userService.create(newUser());
+        UserDto other = userService.create(newUser());
+        assertEquals(user, userService.getUser(user.getId()));
+        assertThrows(ConflictException.class,
+                () -> userService.update(other.getId(), UserDto.builder().email(user.getEmail()).build()));
+
+        userService.deleteUser(user.getId());
+        assertThrows(NotFoundException.class, () -> userStorage.getUser(user.getId()));
+        // the email is free again once its owner is gone
+        assertEquals(user.getEmail(), userService.update(other.getId(),
+                UserDto.builder().email(user.getEmail()).build()).getEmail());
+    }
+
+    @Test
+    void concurrentCreatesKeepIdsAndEmailsUnique() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Integer> conflicts = runConcurrently(thread -> {
+            int conflicted = 0;
+            for (int i = 0; i < 500; i++) {
+                // every email is tried by two threads
+                String email = prefix + (thread / 2) + "-" + i + "@mail.ru";
+                try {
+                    ids.add(userStorage.create(User.builder().name("user").email(email).build()).getId());
+                } catch (ConflictException e) {
+                    conflicted++;
+                }
+            }
+            return conflicted;
+        });
+
+        assertEquals(THREADS / 2 * 500, ids.size());
+        assertEquals(THREADS / 2 * 500, conflicts.stream().mapToInt(Integer::intValue).sum());
+        List<User> created = userStorage.getAll().stream()
+                .filter(user -> user.getEmail().startsWith(prefix))
+                .collect(Collectors.toList());
+        assertEquals(ids, created.stream().map(User::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void concurrentEmailChangesLeaveOneOwner() throws Exception {
+        String email = UUID.randomUUID() + "@mail.ru";
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(userStorage.create(User.builder().name("user").email(UUID.randomUUID() + "@mail.ru").build())
+                    .getId());
+        }
+
+        runConcurrently(thread -> {
+            long userId = userIds.get(thread);
+            String ownEmail = userStorage.getUser(userId).getEmail();
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    userStorage.update(userId, User.builder().email(email).build());
+                    userStorage.update(userId, User.builder().email(ownEmail).build());
+                } catch (ConflictException e) {
+                    // another thread holds the email right now
+                }
+            }
+            return null;
+        });
+
+        List<Long> owners = userStorage.getAll().stream()
+                .filter(user -> user.getEmail().equals(email))
+                .map(User::getId)
+                .collect(Collectors.toList());
+        assertTrue(owners.size() <= 1, "owners: " + owners);
+        if (owners.isEmpty()) {
+            userStorage.create(User.builder().name("user").email(email).build());
+        } else {
+            assertThrows(ConflictException.class,
+                    () -> userStorage.create(User.builder().name("user").email(email).build()));
+        }
+    }
+
+    private <T> List<T> runConcurrently(ThreadTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                Callable<T> callable = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UserDto newUser() {
+        String name = UUID.randomUUID().toString();
+        return UserDto.builder().name(name).email(name + "@mail.ru").build();
+    }
+
+    private interface ThreadTask<T> {
+
+        T run(int thread) throws Exception;
+
+    }
+
+}